@@ -0,0 +1,72 @@
+package com.hlionlog.api.benchmark;
+
+import com.hlionlog.api.HlionlogApplication;
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.service.PostBatchWriter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트(웹 서버 없이)와 H2 데이터를 준비한다.
+ * 측정마다 독립된 in-memory DB를 쓰도록 DB 이름을 매번 새로 만든다.
+ */
+final class BenchmarkData {
+
+    private static final int SEED_CHUNK_SIZE = 1000;
+    private static final String[] WORDS = {
+            "spring", "jpa", "querydsl", "blog", "post", "cache", "index", "query", "page", "cursor",
+            "글", "내용", "제목", "조회", "저장", "수정", "삭제", "목록", "검색", "성능"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(HlionlogApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    static List<Long> seed(ConfigurableApplicationContext context, int datasetSize, int contentLength) {
+        PostBatchWriter writer = context.getBean(PostBatchWriter.class);
+        Random random = new Random(42);
+        List<Long> ids = new ArrayList<>(datasetSize);
+
+        for (int from = 0; from < datasetSize; from += SEED_CHUNK_SIZE) {
+            List<Post> chunk = posts(random, from, Math.min(SEED_CHUNK_SIZE, datasetSize - from), contentLength);
+            writer.saveAll(chunk);
+            chunk.forEach(post -> ids.add(post.getId()));
+        }
+        return ids;
+    }
+
+    static List<Post> posts(Random random, int from, int count, int contentLength) {
+        List<Post> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            posts.add(Post.builder()
+                    .title("benchmark title " + (from + i))
+                    .content(text(random, contentLength))
+                    .build());
+        }
+        return posts;
+    }
+
+    private static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.substring(0, length);
+    }
+}
@@ -0,0 +1,79 @@
+package com.hlionlog.api.benchmark;
+
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.repository.PostRepository;
+import com.hlionlog.api.request.PostSearch;
+import com.hlionlog.api.response.PostSummaryResponse;
+import com.hlionlog.api.service.PostService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 글 목록 조회 - 페이지 위치(first/middle/last)별 offset 비용과 cursor 조회 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostListBenchmark {
+
+    @Param({"1000", "20000"})
+    public int datasetSize;
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    @Param({"first", "middle", "last"})
+    public String position;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private PostRepository postRepository;
+    private PostSearch offsetSearch;
+    private PostSearch cursorSearch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        List<Long> ids = BenchmarkData.seed(context, datasetSize, 200);
+        postService = context.getBean(PostService.class);
+        postRepository = context.getBean(PostRepository.class);
+
+        int lastPage = Math.max(1, datasetSize / pageSize);
+        int page = "first".equals(position) ? 1 : "middle".equals(position) ? lastPage / 2 : lastPage;
+
+        // 같은 위치를 cursor로 읽으려면 그 페이지 바로 앞 글의 id가 cursor가 된다. (id 내림차순)
+        int skipped = (page - 1) * pageSize;
+        Long cursor = skipped == 0 ? Long.MAX_VALUE : ids.get(ids.size() - skipped);
+
+        offsetSearch = PostSearch.builder().page(page).size(pageSize).build();
+        cursorSearch = PostSearch.builder().size(pageSize).cursor(cursor).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PostSummaryResponse> serviceGetList() {
+        return postService.getList(offsetSearch);
+    }
+
+    @Benchmark
+    public List<Post> repositoryGetList() {
+        return postRepository.getList(offsetSearch);
+    }
+
+    @Benchmark
+    public List<PostSummaryResponse> repositoryGetSummaries() {
+        return postRepository.getSummaries(offsetSearch);
+    }
+
+    @Benchmark
+    public List<PostSummaryResponse> repositoryGetSummariesByCursor() {
+        return postRepository.getSummaries(cursorSearch);
+    }
+}
@@ -0,0 +1,59 @@
+package com.hlionlog.api.benchmark;
+
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.repository.PostRepository;
+import com.hlionlog.api.response.PostResponse;
+import com.hlionlog.api.service.PostService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 글 단건 조회 - PostService.get (캐시 포함) vs PostRepository.findWithBodyById (매번 DB)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostReadBenchmark {
+
+    @Param({"1000", "20000"})
+    public int datasetSize;
+
+    @Param({"200", "4000"})
+    public int contentLength;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private PostRepository postRepository;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        ids = BenchmarkData.seed(context, datasetSize, contentLength);
+        postService = context.getBean(PostService.class);
+        postRepository = context.getBean(PostRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PostResponse serviceGet() {
+        return postService.get(randomId());
+    }
+
+    @Benchmark
+    public Post repositoryFindWithBodyById() {
+        return postRepository.findWithBodyById(randomId()).orElseThrow();
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.hlionlog.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.response.PostResponse;
+import com.hlionlog.api.response.PostSummaryResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * DB 없이 엔티티 -> 응답 변환과 목록 JSON 직렬화 비용만 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostResponseBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    @Param({"200", "4000"})
+    public int contentLength;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private List<Post> posts;
+    private List<PostResponse> responses;
+    private List<PostSummaryResponse> summaries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        posts = BenchmarkData.posts(new Random(42), 0, pageSize, contentLength);
+        responses = mapResponses();
+        summaries = posts.stream()
+                .map(post -> PostSummaryResponse.builder()
+                        .title(post.getTitle())
+                        .excerpt(post.getExcerpt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<PostResponse> mapResponses() {
+        return posts.stream()
+                .map(PostResponse::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,68 @@
+package com.hlionlog.api.load;
+
+import java.util.Arrays;
+
+/**
+ * 스레드 하나가 쓰는 응답시간 기록. (스레드끼리 공유하지 않으므로 동기화 없음)
+ * 측정이 끝나면 merge 해서 정렬 후 백분위를 구한다.
+ * 404는 에러와 따로 센다.
+ */
+class LatencyRecorder {
+
+    // 응답을 받지 못함 (연결 실패 등)
+    static final int NO_RESPONSE = -1;
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private long errors;
+    private long notFound;
+
+    void record(long latencyNanos, int status) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+        if (status == 404) {
+            notFound++;
+        } else if (status == NO_RESPONSE || status >= 400) {
+            errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        if (count + other.count > nanos.length) {
+            nanos = Arrays.copyOf(nanos, count + other.count);
+        }
+        System.arraycopy(other.nanos, 0, nanos, count, other.count);
+        count += other.count;
+        errors += other.errors;
+        notFound += other.notFound;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    long notFound() {
+        return notFound;
+    }
+
+    /**
+     * 호출 전에 sort() 필요
+     */
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return nanos[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+    }
+
+    void sort() {
+        Arrays.sort(nanos, 0, count);
+    }
+}
@@ -0,0 +1,68 @@
+package com.hlionlog.api.load;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 부하 테스트 설정. 모두 시스템 프로퍼티로 바꿀 수 있다.
+ *
+ * load.concurrency  동시 요청 스레드 수 (기본 16)
+ * load.duration     측정 시간(초) (기본 30)
+ * load.warmup       워밍업 시간(초), 결과에서 제외 (기본 5)
+ * load.seed         시작 전에 넣어둘 글 수 (기본 1000)
+ * load.content      글 본문 길이 (기본 1000)
+ * load.mix          요청 비율 (기본 get:60,list:20,create:10,edit:5,delete:5)
+ * load.report       결과 JSON 파일 경로 (없으면 콘솔에만 출력)
+ */
+class LoadConfig {
+
+    final int concurrency;
+    final Duration duration;
+    final Duration warmup;
+    final int seed;
+    final int contentLength;
+    final Map<Operation, Integer> mix;
+    final String report;
+
+    private LoadConfig(int concurrency, Duration duration, Duration warmup, int seed, int contentLength,
+                       Map<Operation, Integer> mix, String report) {
+        this.concurrency = concurrency;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.seed = seed;
+        this.contentLength = contentLength;
+        this.mix = mix;
+        this.report = report;
+    }
+
+    static LoadConfig fromSystemProperties() {
+        return new LoadConfig(
+                Integer.getInteger("load.concurrency", 16),
+                Duration.ofSeconds(Long.getLong("load.duration", 30L)),
+                Duration.ofSeconds(Long.getLong("load.warmup", 5L)),
+                Integer.getInteger("load.seed", 1000),
+                Integer.getInteger("load.content", 1000),
+                parseMix(System.getProperty("load.mix", "get:60,list:20,create:10,edit:5,delete:5")),
+                System.getProperty("load.report"));
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("load.mix에 실행할 요청이 없습니다. mix=" + mix);
+        }
+        return weights;
+    }
+
+    enum Operation {
+        CREATE, GET, LIST, EDIT, DELETE
+    }
+}
@@ -0,0 +1,288 @@
+package com.hlionlog.api.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hlionlog.api.HlionlogApplication;
+import com.hlionlog.api.load.LoadConfig.Operation;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 애플리케이션을 임의의 포트로 띄우고, 글을 미리 넣어둔 뒤 PostController API에 설정한 비율로 요청을 보낸다.
+ * 요청 종류별 처리량과 p50/p99/p999 응답시간을 출력한다.
+ *
+ * 조회/수정은 미리 넣어둔 글만 대상으로 하고, 삭제는 이번 실행이 삭제용으로 만든 글만 지운다.
+ * 그래서 404는 정상적으로 나올 일이 없으므로 에러와 따로 센다.
+ *
+ * ./gradlew loadTest -Dload.concurrency=32 -Dload.duration=60 -Dload.mix=get:80,list:20
+ */
+public class PostLoadTest {
+
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private final URI baseUri;
+    private final LoadConfig config;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // 조회/수정 대상 (seed 후에는 바뀌지 않는다)
+    private final List<Long> ids = new ArrayList<>();
+    // 삭제 대상. 지울 때 꺼내므로 같은 글을 두 번 지우지 않는다.
+    private final Queue<Long> deletable = new ConcurrentLinkedQueue<>();
+
+    PostLoadTest(URI baseUri, LoadConfig config) {
+        this.baseUri = baseUri;
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(config.concurrency))
+                .build();
+    }
+
+    public static void main(String[] args) {
+        int exitCode = 1;
+        ConfigurableApplicationContext context = null;
+        try {
+            LoadConfig config = LoadConfig.fromSystemProperties();
+            context = new SpringApplicationBuilder(HlionlogApplication.class)
+                    .properties(
+                            "server.port=0",
+                            "spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID(),
+                            "spring.main.banner-mode=off",
+                            "logging.level.root=WARN")
+                    .run(args);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            new PostLoadTest(URI.create("http://localhost:" + port), config).run();
+            exitCode = 0;
+        } catch (Exception e) {
+            System.err.println("부하 테스트 실패");
+            e.printStackTrace();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        // HttpClient 스레드가 남아 있어도 끝나도록 직접 종료한다. 실패했으면 gradle 태스크도 실패하도록 1로 끝낸다.
+        System.exit(exitCode);
+    }
+
+    void run() throws Exception {
+        seed();
+        System.out.printf("seeded %d posts (+%d to delete), concurrency=%d, warmup=%ds, duration=%ds, mix=%s%n",
+                ids.size(), deletable.size(), config.concurrency, config.warmup.getSeconds(), config.duration.getSeconds(), config.mix);
+
+        drive(config.warmup);
+        Map<Operation, LatencyRecorder> result = drive(config.duration);
+        report(result);
+    }
+
+    // 글 넣기는 측정 대상이 아니므로 /posts/batch로 한 번에 넣고, id는 제목 prefix + cursor 목록 조회로 모은다.
+    private void seed() throws IOException, InterruptedException {
+        insert("seed-", config.seed);
+        ids.addAll(collect("seed-"));
+
+        insert("delete-", config.seed);
+        deletable.addAll(collect("delete-"));
+    }
+
+    private void insert(String titlePrefix, int count) throws IOException, InterruptedException {
+        for (int from = 0; from < count; from += SEED_BATCH_SIZE) {
+            List<Map<String, String>> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, count); i++) {
+                batch.add(post(titlePrefix + i));
+            }
+            send(json(HttpRequest.newBuilder(baseUri.resolve("/posts/batch")), "POST", batch));
+        }
+    }
+
+    private List<Long> collect(String titlePrefix) throws IOException, InterruptedException {
+        List<Long> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            String query = "/posts/all?titlePrefix=" + titlePrefix + "&size=" + SEED_BATCH_SIZE
+                    + (cursor == null ? "" : "&cursor=" + cursor);
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(baseUri.resolve(query)).GET());
+            for (JsonNode post : objectMapper.readTree(response.body())) {
+                found.add(post.get("id").asLong());
+            }
+            cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+        } while (cursor != null);
+        return found;
+    }
+
+    // 삭제용 글을 다 썼으면 하나 더 만든다. (POST /posts는 id를 돌려주지 않으므로 고유한 제목으로 찾는다)
+    private long createToDelete() throws IOException, InterruptedException {
+        String title = "delete-" + UUID.randomUUID();
+        send(json(HttpRequest.newBuilder(baseUri.resolve("/posts")), "POST", post(title)));
+
+        List<Long> found = collect(title);
+        if (found.isEmpty()) {
+            throw new IllegalStateException("삭제용 글을 찾지 못했습니다. title=" + title);
+        }
+        return found.get(0);
+    }
+
+    private Map<Operation, LatencyRecorder> drive(Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency);
+        List<Future<Map<Operation, LatencyRecorder>>> futures = new ArrayList<>();
+        for (int i = 0; i < config.concurrency; i++) {
+            futures.add(workers.submit(() -> work(deadline)));
+        }
+
+        Map<Operation, LatencyRecorder> merged = new EnumMap<>(Operation.class);
+        for (Future<Map<Operation, LatencyRecorder>> future : futures) {
+            future.get().forEach((operation, recorder) ->
+                    merged.computeIfAbsent(operation, key -> new LatencyRecorder()).merge(recorder));
+        }
+        workers.shutdown();
+        return merged;
+    }
+
+    private Map<Operation, LatencyRecorder> work(long deadline) throws IOException, InterruptedException {
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        int totalWeight = config.mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        while (System.nanoTime() < deadline) {
+            Operation operation = pick(totalWeight);
+            // 삭제용 글 만들기 같은 준비 요청은 측정하지 않는다.
+            HttpRequest request = request(operation);
+
+            long startedAt = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = LatencyRecorder.NO_RESPONSE;
+            }
+            recorders.computeIfAbsent(operation, key -> new LatencyRecorder())
+                    .record(System.nanoTime() - startedAt, status);
+        }
+        return recorders;
+    }
+
+    private Operation pick(int totalWeight) {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : config.mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private HttpRequest request(Operation operation) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long id = ids.get(random.nextInt(ids.size()));
+
+        switch (operation) {
+            case CREATE:
+                return json(HttpRequest.newBuilder(baseUri.resolve("/posts")), "POST", post("load")).build();
+            case GET:
+                return HttpRequest.newBuilder(baseUri.resolve("/posts/" + id)).GET().build();
+            case LIST:
+                return HttpRequest.newBuilder(baseUri.resolve("/posts/all?page=" + (random.nextInt(3) + 1) + "&size=10"))
+                        .GET()
+                        .build();
+            case EDIT:
+                return json(HttpRequest.newBuilder(baseUri.resolve("/posts/" + id)), "PATCH", post("edited")).build();
+            case DELETE:
+                Long target = deletable.poll();
+                if (target == null) {
+                    target = createToDelete();
+                }
+                return HttpRequest.newBuilder(baseUri.resolve("/posts/" + target)).DELETE().build();
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    private HttpRequest.Builder json(HttpRequest.Builder builder, String method, Object body) {
+        try {
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, String> post(String title) {
+        StringBuilder content = new StringBuilder(config.contentLength);
+        while (content.length() < config.contentLength) {
+            content.append("load test content ");
+        }
+        return Map.of("title", title, "content", content.substring(0, config.contentLength));
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("준비 요청 실패. status=" + response.statusCode());
+        }
+        return response;
+    }
+
+    private void report(Map<Operation, LatencyRecorder> result) throws IOException {
+        double seconds = config.duration.toMillis() / 1000.0;
+        LatencyRecorder total = new LatencyRecorder();
+        Map<String, Object> report = new LinkedHashMap<>();
+
+        System.out.printf("%-8s %10s %8s %8s %10s %9s %9s %9s%n", "op", "requests", "errors", "404", "req/s", "p50(ms)", "p99(ms)", "p999(ms)");
+        for (Map.Entry<Operation, LatencyRecorder> entry : result.entrySet()) {
+            total.merge(entry.getValue());
+            report.put(entry.getKey().name().toLowerCase(), summary(entry.getValue(), seconds));
+        }
+        report.put("total", summary(total, seconds));
+
+        for (Map.Entry<String, Object> entry : report.entrySet()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Number> row = (Map<String, Number>) entry.getValue();
+            System.out.printf("%-8s %10d %8d %8d %10.1f %9.2f %9.2f %9.2f%n", entry.getKey(),
+                    row.get("requests").longValue(), row.get("errors").longValue(), row.get("notFound").longValue(),
+                    row.get("throughput").doubleValue(),
+                    row.get("p50").doubleValue(), row.get("p99").doubleValue(), row.get("p999").doubleValue());
+        }
+
+        if (config.report != null) {
+            File file = new File(config.report);
+            file.getParentFile().mkdirs();
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+            System.out.println("report -> " + file.getAbsolutePath());
+        }
+    }
+
+    private Map<String, Number> summary(LatencyRecorder recorder, double seconds) {
+        recorder.sort();
+        Map<String, Number> row = new LinkedHashMap<>();
+        row.put("requests", recorder.count());
+        row.put("errors", recorder.errors());
+        row.put("notFound", recorder.notFound());
+        row.put("throughput", recorder.count() / seconds);
+        row.put("p50", recorder.percentileMillis(50));
+        row.put("p99", recorder.percentileMillis(99));
+        row.put("p999", recorder.percentileMillis(99.9));
+        return row;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hlionlog.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 크기 + TTL 기준으로 비워지는 로컬 캐시.
+ *
+ * 무효화할 때마다 generation을 올린다. 조회를 시작한 시점의 generation과 다르면 결과를 캐시에 넣지 않으므로,
+ * 수정/삭제 전에 읽은 값이 무효화 이후에 뒤늦게 들어가는 일이 없다.
+ * 트랜잭션 안에서 무효화하면 커밋 직후에 한 번 더 비운다. (커밋 전에 다른 요청이 옛 값을 다시 채울 수 있으므로)
+ */
+public class LocalCache<K, V> {
+
+    private final Cache<K, V> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final Object writeLock = new Object();
+
+    public LocalCache(long maximumSize, Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        V value = loader.get();
+        putIfCurrent(key, value, loadedAt);
+        return value;
+    }
+
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    // 조회 통계(hit/miss)에 잡히지 않는다.
+    public boolean contains(K key) {
+        return cache.asMap().containsKey(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void putIfCurrent(K key, V value, long expectedGeneration) {
+        if (value == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (generation.get() == expectedGeneration) {
+                cache.put(key, value);
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        evict(key);
+        afterCommit(() -> evict(key));
+    }
+
+    public void invalidateAll() {
+        evictAll();
+        afterCommit(this::evictAll);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private void evict(K key) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            cache.invalidate(key);
+        }
+    }
+
+    private void evictAll() {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.hlionlog.api.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hlionlog.api.request.PostSearch;
+import com.hlionlog.api.response.PostSummaryResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 글 목록 앞쪽 페이지 캐시. (page, size) 별로 저장한다. 필터/정렬 없이 최신순으로 볼 때만 캐시한다.
+ * 글이 추가/수정/삭제되면 앞 페이지 내용이 모두 밀리거나 바뀌므로 통째로 비운다.
+ */
+public class PostListCache {
+
+    private final LocalCache<String, List<PostSummaryResponse>> cache;
+    private final int maxPage;
+
+    public PostListCache(int maxPage, long maximumSize, Duration ttl) {
+        this.cache = new LocalCache<>(maximumSize, ttl);
+        this.maxPage = maxPage;
+    }
+
+    public List<PostSummaryResponse> get(PostSearch postSearch, Supplier<List<PostSummaryResponse>> loader) {
+        if (!isCacheable(postSearch)) {
+            return loader.get();
+        }
+        return cache.get(keyOf(postSearch), () -> List.copyOf(loader.get()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private boolean isCacheable(PostSearch postSearch) {
+        return postSearch.isDefaultView() && !postSearch.isCursorMode() && page(postSearch) <= maxPage;
+    }
+
+    private String keyOf(PostSearch postSearch) {
+        return page(postSearch) + ":" + postSearch.getSize();
+    }
+
+    private int page(PostSearch postSearch) {
+        return Math.max(1, postSearch.getPage());
+    }
+}
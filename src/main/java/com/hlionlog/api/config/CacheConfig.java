@@ -0,0 +1,33 @@
+package com.hlionlog.api.config;
+
+import com.hlionlog.api.cache.LocalCache;
+import com.hlionlog.api.cache.PostListCache;
+import com.hlionlog.api.cache.SingleFlight;
+import com.hlionlog.api.response.PostResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public LocalCache<Long, PostResponse> postCache(@Value("${hlionlog.cache.post.maximum-size}") long maximumSize,
+                                                    @Value("${hlionlog.cache.post.ttl}") Duration ttl) {
+        return new LocalCache<>(maximumSize, ttl);
+    }
+
+    @Bean
+    public PostListCache postListCache(@Value("${hlionlog.cache.post-list.max-page}") int maxPage,
+                                       @Value("${hlionlog.cache.post-list.maximum-size}") long maximumSize,
+                                       @Value("${hlionlog.cache.post-list.ttl}") Duration ttl) {
+        return new PostListCache(maxPage, maximumSize, ttl);
+    }
+
+    @Bean
+    public SingleFlight<Long, PostResponse> postLoads() {
+        return new SingleFlight<>();
+    }
+}
@@ -0,0 +1,84 @@
+package com.hlionlog.api.config;
+
+import com.hlionlog.api.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 전용 트랜잭션을 replica로 보내는 DataSource (hlionlog.datasource.routing.enabled=true 일 때만)
+ *
+ * primary는 기존 spring.datasource 설정을 그대로 쓰고, replica는 hlionlog.datasource.routing.replicas 에 설정한다.
+ * replica 연결 실패는 primary로 넘어가면 되므로, hikari 기본값(30초)까지 기다리지 않도록 connection-timeout을 짧게 둔다.
+ *
+ * open-in-view가 켜져 있으면 Hibernate는 요청이 끝날 때까지 처음 가져온 연결을 계속 쓴다. (DELAYED_ACQUISITION_AND_HOLD)
+ * 그러면 요청의 첫 트랜잭션이 readOnly일 때 이후 쓰기도 replica로 가므로, 트랜잭션이 끝날 때마다 연결을 돌려주도록 바꾼다.
+ * 꺼져 있으면 spring boot 기본 DataSource 하나만 사용한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "hlionlog.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceRoutingConfig implements DisposableBean {
+
+    private static final String ROUTING = "hlionlog.datasource.routing";
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment) {
+        Binder binder = Binder.get(environment);
+        Duration connectionTimeout = binder.bind(ROUTING + ".connection-timeout", Duration.class)
+                .orElse(Duration.ofSeconds(1));
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        pools.add(primary);
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; binder.bind(ROUTING + ".replicas[" + i + "].jdbc-url", String.class).isBound(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            binder.bind(ROUTING + ".replicas[" + i + "]", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            pools.add(replica);
+            replicas.add(replica);
+        }
+
+        Duration stickiness = binder.bind(ROUTING + ".stickiness", Duration.class).orElse(Duration.ofSeconds(2));
+        Duration retryAfter = binder.bind(ROUTING + ".retry-after", Duration.class).orElse(Duration.ofSeconds(30));
+
+        // 트랜잭션이 시작된 뒤 readOnly 여부를 보고 연결을 고르도록, 실제 연결은 첫 SQL 실행 시점에 가져온다.
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replicas, stickiness, retryAfter));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
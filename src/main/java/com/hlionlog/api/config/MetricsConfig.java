@@ -0,0 +1,67 @@
+package com.hlionlog.api.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hlionlog.api.cache.LocalCache;
+import com.hlionlog.api.cache.PostListCache;
+import com.hlionlog.api.cache.SingleFlight;
+import com.hlionlog.api.response.PostResponse;
+import com.hlionlog.api.writebehind.PostWriteBehind;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 요청/리포지토리/Hibernate 지표는 actuator 자동 설정이 만든다. (application.yml 참고)
+ * 여기서는 직접 만든 캐시, SingleFlight, write-behind 지표만 등록한다.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder postCacheMetrics(LocalCache<Long, PostResponse> postCache) {
+        return registry -> bindCache(registry, "post", postCache::stats, postCache::size);
+    }
+
+    @Bean
+    public MeterBinder postListCacheMetrics(PostListCache postListCache) {
+        return registry -> bindCache(registry, "post-list", postListCache::stats, postListCache::size);
+    }
+
+    @Bean
+    public MeterBinder postLoadsMetrics(SingleFlight<Long, PostResponse> postLoads) {
+        return registry -> FunctionCounter.builder("hlionlog.post.loads.collapsed", postLoads, SingleFlight::getCollapsedCount)
+                .description("다른 요청의 조회 결과를 기다려서 받은 호출 수")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder postWriteBehindMetrics(PostWriteBehind postWriteBehind) {
+        return registry -> Gauge.builder("hlionlog.post.write-behind.queue", postWriteBehind, PostWriteBehind::getQueueSize)
+                .description("저장을 기다리는 글 수")
+                .register(registry);
+    }
+
+    private void bindCache(MeterRegistry registry, String name, Supplier<CacheStats> stats, Supplier<Long> size) {
+        counter(registry, "hlionlog.cache.gets", name, stats, CacheStats::hitCount, "result", "hit");
+        counter(registry, "hlionlog.cache.gets", name, stats, CacheStats::missCount, "result", "miss");
+        counter(registry, "hlionlog.cache.evictions", name, stats, CacheStats::evictionCount);
+
+        Gauge.builder("hlionlog.cache.size", size, s -> s.get())
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String meterName, String cacheName, Supplier<CacheStats> stats,
+                         ToDoubleFunction<CacheStats> value, String... tags) {
+        FunctionCounter.builder(meterName, stats, s -> value.applyAsDouble(s.get()))
+                .tag("cache", cacheName)
+                .tags(tags)
+                .register(registry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.hlionlog.api.config;
+
+import com.hlionlog.api.sql.CountingDataSource;
+import com.hlionlog.api.sql.QueryBudget;
+import com.hlionlog.api.sql.QueryCountAspect;
+import com.hlionlog.api.sql.QueryCountInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * 요청별 / PostService 메서드별 SQL 문 수 세기
+ */
+@Configuration
+@RequiredArgsConstructor
+public class QueryCountConfig implements WebMvcConfigurer {
+
+    private static final String DATA_SOURCE = "dataSource";
+
+    private final QueryBudget queryBudget;
+
+    // 애플리케이션이 쓰는 DataSource만 감싼다.
+    @Bean
+    public static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && DATA_SOURCE.equals(beanName)) {
+                    return new CountingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueryCountAspect queryCountAspect() {
+        return new QueryCountAspect(queryBudget);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryCountInterceptor(queryBudget));
+    }
+}
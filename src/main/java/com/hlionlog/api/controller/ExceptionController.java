@@ -2,8 +2,11 @@ package com.hlionlog.api.controller;
 
 import com.hlionlog.api.exception.HlionException;
 import com.hlionlog.api.response.ErrorResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -17,12 +20,19 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
 @Slf4j
 @ControllerAdvice
+@RequiredArgsConstructor
 public class ExceptionController {
 
+    private static final String EXCEPTIONS = "hlionlog.exceptions";
+
+    private final MeterRegistry meterRegistry;
+
     @ResponseBody
     @ExceptionHandler(HlionException.class)
     public ResponseEntity<ErrorResponse> hlionException(HlionException e) {
         int statusCode = e.getStatusCode();
+        count(e.getClass().getSimpleName(), statusCode);
+
         ErrorResponse body = ErrorResponse.builder()
                 .code(String.valueOf(statusCode))
                 .message(e.getMessage())
@@ -37,6 +47,8 @@ public class ExceptionController {
     @ResponseStatus(BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> invalidRequestHandler(MethodArgumentNotValidException e) {
+        count(e.getClass().getSimpleName(), 400);
+
         ErrorResponse body = ErrorResponse.builder()
                 .code("400")
                 .message("잘못된 요청입니다.")
@@ -51,4 +63,25 @@ public class ExceptionController {
                 .body(body);
     }
 
+    // 엔티티를 읽어서 수정하는 경로(@Version)에서 동시에 수정된 경우
+    @ResponseBody
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> optimisticLockingFailure(ObjectOptimisticLockingFailureException e) {
+        count(e.getClass().getSimpleName(), 409);
+
+        ErrorResponse body = ErrorResponse.builder()
+                .code("409")
+                .message("다른 사용자가 동시에 수정했습니다. 다시 시도해주세요.")
+                .validation(new HashMap<>())
+                .build();
+
+        return ResponseEntity.status(409)
+                .body(body);
+    }
+
+    // 예외 종류(HlionException 하위 클래스)별 발생 수
+    private void count(String exception, int statusCode) {
+        meterRegistry.counter(EXCEPTIONS, "exception", exception, "status", String.valueOf(statusCode))
+                .increment();
+    }
 }
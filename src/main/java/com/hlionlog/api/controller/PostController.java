@@ -3,22 +3,61 @@ package com.hlionlog.api.controller;
 import com.hlionlog.api.request.PostCreate;
 import com.hlionlog.api.request.PostEdit;
 import com.hlionlog.api.request.PostSearch;
+import com.hlionlog.api.response.PostBatchResponse;
+import com.hlionlog.api.response.PostHotResponse;
+import com.hlionlog.api.response.PostImportResponse;
+import com.hlionlog.api.response.PostMultiResponse;
 import com.hlionlog.api.response.PostResponse;
+import com.hlionlog.api.response.PostSearchResponse;
+import com.hlionlog.api.response.PostSummaryResponse;
+import com.hlionlog.api.response.PostVersion;
+import com.hlionlog.api.service.PostBatchService;
+import com.hlionlog.api.service.PostExportService;
+import com.hlionlog.api.service.PostImportService;
+import com.hlionlog.api.service.PostSearchService;
 import com.hlionlog.api.service.PostService;
+import com.hlionlog.api.view.PostViewCounter;
+import com.hlionlog.api.writebehind.PostWriteBehind;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class PostController {
 
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+    private static final String VIEW_COUNT = "X-View-Count";
+
     private final PostService postService;
+    private final PostBatchService postBatchService;
+    private final PostExportService postExportService;
+    private final PostImportService postImportService;
+    private final PostSearchService postSearchService;
+    private final PostWriteBehind postWriteBehind;
+    private final PostViewCounter postViewCounter;
+
+    // 전체 내보내기만 오래 걸리므로 이 요청에만 따로 두는 timeout (다른 비동기 요청은 spring 기본값)
+    @Value("${hlionlog.export.timeout:30m}")
+    private Duration exportTimeout;
 
     @GetMapping("/posts")
     public Map<String, String> post(@RequestBody @Valid PostCreate params) {
@@ -26,7 +65,7 @@ public class PostController {
     }
 
     @PostMapping("/posts")
-    public void savePosts(@RequestBody @Valid PostCreate params) {
+    public ResponseEntity<Void> savePosts(@RequestBody @Valid PostCreate params) {
         // Case1. 저장한 데이터 Entity -> response로 응답하기
         // Case2. 저장한 데이터의 primary_id -> response로 응답하기
         //         Client에서는 수신한 id를 글 조회 API를 통해서 데이터를 수신받음
@@ -36,7 +75,19 @@ public class PostController {
         //          -> 한 번에 일괄적으로 잘 처리되는 케이스가 없다, 잘 관리하는 형태가 중요
 
         params.validate();
+
+        // write-behind가 켜져 있으면 journal에 남긴 뒤 202로 응답하고, DB 저장은 모아서 한다.
+        if (postWriteBehind.isEnabled()) {
+            postWriteBehind.submit(params);
+            return ResponseEntity.accepted().build();
+        }
         postService.write(params);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/posts/batch")
+    public PostBatchResponse savePostsBatch(@RequestBody List<PostCreate> params) {
+        return postBatchService.writeAll(params);
     }
 
     /**
@@ -44,22 +95,111 @@ public class PostController {
      * /posts/{postId} -> 글 한개만 조회
      */
     @GetMapping("/posts/{postId}")
-    public PostResponse get(@PathVariable(name = "postId") Long id) {
-        return postService.get(id);
+    public PostResponse get(@PathVariable(name = "postId") Long id, WebRequest request, HttpServletResponse response) {
+        // 클라이언트가 가진 버전이 최신이면 본문을 읽지 않고 304로 응답한다.
+        // 조회수는 ETag와 상관없이 바뀌므로 헤더로 내려주고(304에도 포함), 본문을 보낸 경우에만 센다.
+        if (isConditional(request)) {
+            PostVersion version = postService.getVersion(id);
+            response.setHeader(VIEW_COUNT, String.valueOf(version.getViews()));
+            if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+                return null;
+            }
+        }
+
+        PostResponse post = postService.get(id);
+        PostVersion version = post.toVersion();
+        request.checkNotModified(version.getETag(), version.getLastModified());
+        response.setHeader(VIEW_COUNT, String.valueOf(post.getViews()));
+        postViewCounter.increment(id);
+        return post;
+    }
+
+    @GetMapping(value = "/posts", params = "ids")
+    public PostMultiResponse getAll(@RequestParam List<Long> ids) {
+        return postService.getAll(ids);
     }
 
     @GetMapping("/posts/all")
-    public List<PostResponse> getList(@ModelAttribute PostSearch postSearch) {
-        return postService.getList(postSearch);
+    public ResponseEntity<List<PostSummaryResponse>> getList(@ModelAttribute PostSearch postSearch) {
+        postSearch.validate();
+        List<PostSummaryResponse> posts = postService.getList(postSearch);
+
+        // ETag가 같으면 Spring이 본문을 쓰지 않고 304로 응답한다.
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(listETag(posts));
+
+        // 페이지가 가득 찼으면 다음 페이지가 있을 수 있다 -> 마지막 글 id를 다음 cursor로 내려준다. (id 기준 정렬만)
+        if (postSearch.getSort().isKeyset() && !posts.isEmpty() && posts.size() >= postSearch.getSize()) {
+            response.header(NEXT_CURSOR, String.valueOf(posts.get(posts.size() - 1).getId()));
+        }
+        return response.body(posts);
+    }
+
+    // 최근 조회가 많은 글 -> 메모리에 계산해 둔 순위를 그대로 내려준다.
+    @GetMapping("/posts/hot")
+    public List<PostHotResponse> getHot(@RequestParam(defaultValue = "10") int size) {
+        return postViewCounter.getHot(size);
     }
 
+    // /posts/search?q=검색어&page=1&size=10 -> 관련도 순
+    @GetMapping("/posts/search")
+    public PostSearchResponse search(@RequestParam String q, @ModelAttribute PostSearch postSearch) {
+        return postSearchService.search(q, postSearch);
+    }
+
+    @GetMapping("/posts/export")
+    public WebAsyncTask<Void> export(HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            postExportService.export(response.getOutputStream());
+            return null;
+        });
+    }
+
+    @PostMapping(value = "/posts/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public PostImportResponse importPosts(@RequestParam(required = false) String importId,
+                                          @RequestParam(defaultValue = "0") long offset,
+                                          InputStream body) throws IOException {
+        return postImportService.importPosts(importId, offset, body);
+    }
+
+    @GetMapping("/posts/import/{importId}")
+    public PostImportResponse getImport(@PathVariable String importId) {
+        return postImportService.getStatus(importId);
+    }
+
+    // If-Match(조회 시 받은 ETag)를 보내면 그 버전일 때만 수정하고, 다르면 412로 응답한다.
     @PatchMapping("/posts/{postId}")
-    public void edit(@PathVariable(name = "postId") Long id, @RequestBody @Valid PostEdit postEdit) {
-        postService.edit(id, postEdit);
+    public ResponseEntity<Void> edit(@PathVariable(name = "postId") Long id,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                     @RequestBody @Valid PostEdit postEdit) {
+        Long expectedVersion = PostVersion.parseIfMatch(id, ifMatch);
+        postService.edit(id, postEdit, expectedVersion);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (expectedVersion != null) {
+            response.eTag(new PostVersion(id, expectedVersion + 1, null).getETag());
+        }
+        return response.build();
     }
 
     @DeleteMapping("/posts/{postId}")
     public void delete(@PathVariable(name = "postId") Long id) {
         postService.delete(id);
     }
+
+    private boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    // 목록의 글 id, 버전이 모두 같으면 응답도 같다.
+    // (삭제는 modifiedAt에 남지 않으므로 목록에는 Last-Modified를 쓰지 않는다)
+    private String listETag(List<PostSummaryResponse> posts) {
+        StringBuilder versions = new StringBuilder();
+        for (PostSummaryResponse post : posts) {
+            versions.append(post.getId()).append(':').append(post.getVersion()).append(',');
+        }
+        return DigestUtils.md5DigestAsHex(versions.toString().getBytes(UTF_8));
+    }
 }
@@ -0,0 +1,121 @@
+package com.hlionlog.api.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 replica로, 나머지는 primary로 보낸다.
+ *
+ * - replica는 돌아가면서(round-robin) 쓰고, 연결에 실패한 replica는 retryAfter 동안 건너뛴다.
+ * - 쓰기 직후에는 replica에 아직 반영되지 않았을 수 있으므로, 마지막 쓰기부터 stickiness 동안은 읽기도 primary로 보낸다.
+ *   (요청한 클라이언트를 구분하지 않고 서버 전체 기준)
+ *
+ * 트랜잭션 시작 시점에는 readOnly 여부가 아직 설정되기 전이므로, 반드시 LazyConnectionDataSourceProxy로 감싸서
+ * 첫 SQL을 실행할 때 연결을 고르도록 해야 한다.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long stickinessMillis;
+    private final long retryAfterMillis;
+    private final LongSupplier clock;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong lastWriteAt;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      Duration stickiness, Duration retryAfter) {
+        this(primary, replicas, stickiness, retryAfter, System::currentTimeMillis);
+    }
+
+    ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                               Duration stickiness, Duration retryAfter, LongSupplier clock) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.stickinessMillis = stickiness.toMillis();
+        this.retryAfterMillis = retryAfter.toMillis();
+        this.clock = clock;
+        this.lastWriteAt = new AtomicLong(clock.getAsLong() - stickinessMillis - 1);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markWrite();
+            return primary.getConnection();
+        }
+        if (clock.getAsLong() - lastWriteAt.get() <= stickinessMillis) {
+            return primary.getConnection();
+        }
+
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markDown();
+                log.warn("replica 연결 실패, {}ms 동안 제외합니다. replica={}", retryAfterMillis, replica.name, e);
+            }
+        }
+        // 사용할 수 있는 replica가 없으면 primary에서 읽는다.
+        return primary.getConnection();
+    }
+
+    // 넘겨받은 계정이 replica에도 있는지 알 수 없으므로 항상 primary에서 가져온다.
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // 연결을 가져갈 때와 트랜잭션이 끝날 때 모두 기록한다. (트랜잭션이 길어도 커밋 이후 stickiness 만큼 primary에서 읽도록)
+    private void markWrite() {
+        lastWriteAt.set(clock.getAsLong());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lastWriteAt.set(clock.getAsLong());
+                }
+            });
+        }
+    }
+
+    private class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long downUntil;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isAvailable() {
+            return clock.getAsLong() >= downUntil;
+        }
+
+        void markDown() {
+            downUntil = clock.getAsLong() + retryAfterMillis;
+        }
+    }
+}
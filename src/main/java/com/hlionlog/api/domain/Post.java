@@ -6,35 +6,90 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
+// 목록 필터/정렬(PostSearch)에 쓰는 컬럼은 모두 인덱스를 둔다.
 @Getter
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_post_title", columnList = "title"),
+        @Index(name = "idx_post_created_at", columnList = "createdAt"),
+        @Index(name = "idx_post_modified_at", columnList = "modifiedAt")
+})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Post {
 
+    public static final int EXCERPT_LENGTH = 100;
+
+    // id는 본문(PostBody)의 id를 그대로 쓴다.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String title;
 
-    @Lob
-    private String content;
+    // 본문은 getContent()를 호출할 때 읽는다.
+    @Getter(AccessLevel.NONE)
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false, cascade = CascadeType.ALL)
+    @JoinColumn(name = "id")
+    private PostBody body;
+
+    // 목록용 본문 앞부분 -> 쓰기/수정 시점에 한 번만 잘라서 저장
+    @Column(length = EXCERPT_LENGTH)
+    private String excerpt;
+
+    // 수정할 때마다 1씩 올린다. 조건부 조회/수정(ETag, If-Match)에 쓴다.
+    // 저장 전에는 null이어야 새 글로 판단한다. (persist 시 Hibernate가 0으로 채움)
+    @Version
+    private Long version;
+
+    // 조회수는 PostViewCounter가 모아서 views = views + ? 로만 반영한다. (엔티티 저장/수정 시에는 건드리지 않음)
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint default 0 not null")
+    private long views;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime modifiedAt;
 
     @Builder
     public Post(String title, String content) {
         this.title = title;
-        this.content = content;
+        this.body = new PostBody(content);
+        this.excerpt = excerptOf(content);
+        this.createdAt = LocalDateTime.now();
+        this.modifiedAt = createdAt;
+    }
+
+    public String getContent() {
+        return body.getContent();
     }
 
     public PostEditor.PostEditorBuilder toEditor() {
         return PostEditor.builder()
                 .title(title)
-                .content(content);
+                .content(getContent());
     }
 
     public void edit(PostEditor postEditor) {
         title = postEditor.getTitle();
-        content = postEditor.getContent();
+        body.edit(postEditor.getContent());
+        excerpt = excerptOf(postEditor.getContent());
+        modifiedAt = LocalDateTime.now();
+    }
+
+    public void refreshExcerpt() {
+        excerpt = excerptOf(getContent());
+    }
+
+    public static String excerptOf(String content) {
+        if (content == null || content.length() <= EXCERPT_LENGTH) {
+            return content;
+        }
+        int end = EXCERPT_LENGTH;
+        // 서로게이트 쌍 중간에서 자르지 않도록
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end);
     }
 }
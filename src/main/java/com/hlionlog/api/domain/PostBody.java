@@ -0,0 +1,79 @@
+package com.hlionlog.api.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.*;
+
+/**
+ * 글 본문. Post와 id를 공유하고(Post.id = PostBody.id), Post에서 지연 로딩한다.
+ *
+ * 본문은 크기가 커서 Post와 같은 테이블에 있으면 제목 수정, 존재 확인, 목록처럼 본문이 필요 없는 조회에서도
+ * 함께 읽힌다. 별도 테이블로 나눠서 getContent()를 호출할 때만 읽도록 한다.
+ *
+ * 본문은 content(CLOB) 또는 compressed_content(BLOB, PostContentCodec) 중 한 곳에만 저장한다.
+ * hlionlog.post.content.compression.enabled=true 일 때만 저장하는 시점에 압축하고(PostBodyListener), 꺼져 있으면
+ * content 컬럼을 예전과 똑같이 쓴다. 읽을 때는 값이 있는 컬럼을 보고 구분하므로 설정을 바꿔도 기존 글은 그대로 읽힌다.
+ *
+ * 기존 post 테이블에서 옮길 때
+ * <pre>
+ * CREATE TABLE post_body (id BIGINT PRIMARY KEY, content CLOB, compressed_content BLOB);
+ * INSERT INTO post_body (id, content) SELECT id, content FROM post;
+ * ALTER TABLE post DROP COLUMN content;
+ * ALTER TABLE post ADD FOREIGN KEY (id) REFERENCES post_body (id);
+ * </pre>
+ * 이미 post_body가 있으면 컬럼만 추가한다. (기존 content 컬럼과 값은 그대로)
+ * <pre>
+ * ALTER TABLE post_body ADD COLUMN compressed_content BLOB;
+ * </pre>
+ */
+@Getter
+@Entity
+@EntityListeners(PostBodyListener.class)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PostBody {
+
+    @Id
+    @GeneratedValue(generator = "post_id")
+    @GenericGenerator(name = "post_id", strategy = "com.hlionlog.api.domain.PostIdGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "post_seq"))
+    private Long id;
+
+    // 압축하지 않은 본문 (압축 설정이 꺼져 있거나, 짧거나, 압축해도 줄지 않는 글)
+    @Lob
+    private String content;
+
+    // 압축한 본문, 값이 있으면 content는 null
+    @Lob
+    private byte[] compressedContent;
+
+    PostBody(String content) {
+        this.content = content;
+    }
+
+    // 압축 여부와 관계없이 원문
+    public String getContent() {
+        return compressedContent == null ? content : PostContentCodec.decompress(compressedContent);
+    }
+
+    void edit(String content) {
+        this.content = content;
+        this.compressedContent = null;
+    }
+
+    // 압축해서 줄어들 때만 compressed_content로 옮긴다.
+    void compress() {
+        if (compressedContent != null) {
+            return;
+        }
+        byte[] compressed = PostContentCodec.compress(content);
+        if (compressed != null) {
+            this.content = null;
+            this.compressedContent = compressed;
+        }
+    }
+}
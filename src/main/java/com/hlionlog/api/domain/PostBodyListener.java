@@ -0,0 +1,24 @@
+package com.hlionlog.api.domain;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * hlionlog.post.content.compression.enabled=true 이면 본문을 저장하기 직전에 압축한다.
+ * (Hibernate가 Spring 빈 컨테이너로 만들기 때문에 @Value를 쓸 수 있다)
+ */
+public class PostBodyListener {
+
+    @Value("${hlionlog.post.content.compression.enabled:false}")
+    private boolean compress;
+
+    @PrePersist
+    @PreUpdate
+    public void compress(PostBody postBody) {
+        if (compress) {
+            postBody.compress();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.hlionlog.api.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 글 본문 압축 (UTF-8을 deflate(BEST_SPEED)로 압축)
+ *
+ * 압축한 본문은 기존 content 컬럼이 아니라 compressed_content 컬럼에 저장하므로(PostBody 참고),
+ * 어떤 컬럼에 값이 있는지로 형식을 구분한다. 형식 바이트가 없어서 기존 글과 헷갈릴 일이 없다.
+ */
+public final class PostContentCodec {
+
+    // 이보다 짧으면 압축해도 거의 줄지 않으므로 그대로 저장
+    private static final int MIN_COMPRESS_BYTES = 256;
+
+    private PostContentCodec() {
+    }
+
+    // 짧거나 압축해도 원본보다 작아지지 않으면 null -> content 컬럼에 그대로 저장
+    public static byte[] compress(String content) {
+        if (content == null) {
+            return null;
+        }
+        byte[] raw = content.getBytes(UTF_8);
+        if (raw.length < MIN_COMPRESS_BYTES) {
+            return null;
+        }
+        return deflate(raw);
+    }
+
+    public static String decompress(byte[] compressed) {
+        if (compressed == null) {
+            return null;
+        }
+        return new String(inflate(compressed), UTF_8);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+
+            byte[] buffer = new byte[raw.length];
+            int length = 0;
+            // 원본 크기를 넘어가면 더 압축해볼 필요가 없다.
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            if (!deflater.finished()) {
+                return null;
+            }
+            byte[] compressed = new byte[length];
+            System.arraycopy(buffer, 0, compressed, 0, length);
+            return compressed;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("압축된 글 본문이 손상되었습니다.");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("압축된 글 본문이 손상되었습니다.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
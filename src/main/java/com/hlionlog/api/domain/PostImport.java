@@ -0,0 +1,37 @@
+package com.hlionlog.api.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * NDJSON 가져오기 진행 상황.
+ * 글 chunk와 같은 트랜잭션에서 갱신되므로 committedLines 까지는 정확히 한 번만 저장된 것이 보장된다.
+ */
+@Getter
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PostImport {
+
+    @Id
+    private String id;
+
+    private long committedLines;
+
+    private long imported;
+
+    private long rejected;
+
+    public PostImport(String id) {
+        this.id = id;
+    }
+
+    public void commit(long committedLines, long imported, long rejected) {
+        this.committedLines = committedLines;
+        this.imported += imported;
+        this.rejected += rejected;
+    }
+}
@@ -0,0 +1,37 @@
+package com.hlionlog.api.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * write-behind journal을 어디까지 처리했는지 (journal 하나당 한 row)
+ * 글과 같은 트랜잭션에서 갱신되므로 committedSeq 까지는 정확히 한 번만 처리된 것이 보장된다.
+ */
+@Getter
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PostJournalCheckpoint {
+
+    @Id
+    private String id;
+
+    private long committedSeq;
+
+    private long saved;
+
+    private long failed;
+
+    public PostJournalCheckpoint(String id) {
+        this.id = id;
+    }
+
+    public void commit(long committedSeq, long saved, long failed) {
+        this.committedSeq = committedSeq;
+        this.saved += saved;
+        this.failed += failed;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hlionlog.api.exception;
+
+/**
+ * status -> 412
+ * If-Match로 보낸 버전과 현재 글의 버전이 다른 경우 (그 사이에 다른 사용자가 수정함)
+ */
+public class PostModified extends HlionException {
+
+    private static final String MESSAGE = "다른 사용자가 먼저 수정한 글입니다. 다시 조회한 뒤 수정해주세요.";
+
+    public PostModified() {
+        super(MESSAGE);
+    }
+
+    @Override
+    public int getStatusCode() {
+        return 412;
+    }
+}
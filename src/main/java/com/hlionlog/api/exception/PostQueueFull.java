@@ -0,0 +1,19 @@
+package com.hlionlog.api.exception;
+
+/**
+ * status -> 503
+ * write-behind 대기열이 가득 찼거나 종료 중이라 글 저장 요청을 받을 수 없는 경우
+ */
+public class PostQueueFull extends HlionException {
+
+    private static final String MESSAGE = "글 저장 요청이 많습니다. 잠시 후 다시 시도해주세요.";
+
+    public PostQueueFull() {
+        super(MESSAGE);
+    }
+
+    @Override
+    public int getStatusCode() {
+        return 503;
+    }
+}
@@ -0,0 +1,81 @@
+package com.hlionlog.api.job;
+
+import com.hlionlog.api.domain.PostContentCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 압축 설정을 켜기 전에 저장된 글 본문을 압축 형식으로 다시 저장한다.
+ * hlionlog.job.content-reencode.enabled=true 로 기동하면 시작 시 한 번 실행된다.
+ *
+ * 엔티티를 거치지 않고 content 컬럼에 남아있는 글만 읽어서 compressed_content로 옮긴다. (압축해도 줄지 않는 글은 그대로)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "hlionlog.job.content-reencode.enabled", havingValue = "true")
+public class PostContentReencodeJob implements ApplicationRunner {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long total = reencode();
+        log.info("글 본문 압축 완료. updated={}", total);
+    }
+
+    public long reencode() {
+        long total = 0;
+        long lastId = 0L;
+
+        while (true) {
+            final long from = lastId;
+            Chunk chunk = transactionTemplate.execute(status -> reencode(from));
+            if (chunk == null || chunk.lastId == null) {
+                return total;
+            }
+            total += chunk.updated;
+            lastId = chunk.lastId;
+        }
+    }
+
+    private Chunk reencode(long from) {
+        Chunk chunk = new Chunk();
+        List<Object[]> updates = new ArrayList<>();
+
+        jdbcTemplate.query("select id, content from post_body where id > ? and compressed_content is null"
+                + " order by id limit ?", rs -> {
+            long id = rs.getLong("id");
+            String content = rs.getString("content");
+            chunk.lastId = id;
+
+            byte[] compressed = PostContentCodec.compress(content);
+            if (compressed != null) {
+                updates.add(new Object[]{compressed, id});
+            }
+        }, from, CHUNK_SIZE);
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update post_body set content = null, compressed_content = ? where id = ?", updates);
+        }
+        chunk.updated = updates.size();
+        return chunk;
+    }
+
+    private static class Chunk {
+        private Long lastId;
+        private int updated;
+    }
+}
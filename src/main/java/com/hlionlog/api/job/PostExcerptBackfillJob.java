@@ -0,0 +1,56 @@
+package com.hlionlog.api.job;
+
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * excerpt 컬럼이 생기기 전에 저장된 글의 excerpt를 채운다.
+ * hlionlog.job.excerpt-backfill.enabled=true 로 기동하면 시작 시 한 번 실행된다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "hlionlog.job.excerpt-backfill.enabled", havingValue = "true")
+public class PostExcerptBackfillJob implements ApplicationRunner {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long total = backfill();
+        log.info("excerpt backfill 완료. updated={}", total);
+    }
+
+    public long backfill() {
+        long total = 0;
+        long lastId = 0L;
+
+        // 청크 단위로 커밋 -> 트랜잭션과 영속성 컨텍스트가 한없이 커지지 않도록
+        while (true) {
+            final long from = lastId;
+            List<Post> posts = transactionTemplate.execute(status -> {
+                List<Post> chunk = postRepository.getListWithoutExcerpt(from, CHUNK_SIZE);
+                chunk.forEach(Post::refreshExcerpt);
+                return chunk;
+            });
+
+            if (posts == null || posts.isEmpty()) {
+                return total;
+            }
+            total += posts.size();
+            lastId = posts.get(posts.size() - 1).getId();
+        }
+    }
+}
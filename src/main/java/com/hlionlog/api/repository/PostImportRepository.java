@@ -0,0 +1,7 @@
+package com.hlionlog.api.repository;
+
+import com.hlionlog.api.domain.PostImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PostImportRepository extends JpaRepository<PostImport, String> {
+}
@@ -0,0 +1,7 @@
+package com.hlionlog.api.repository;
+
+import com.hlionlog.api.domain.PostJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PostJournalCheckpointRepository extends JpaRepository<PostJournalCheckpoint, String> {
+}
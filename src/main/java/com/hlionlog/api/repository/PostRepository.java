@@ -1,7 +1,22 @@
 package com.hlionlog.api.repository;
 
 import com.hlionlog.api.domain.Post;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
+
+    // 본문(body)은 지연 로딩이므로, 본문까지 필요한 조회는 아래 메서드로 한 번에 읽는다.
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = "body")
+    Optional<Post> findWithBodyById(Long id);
+
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = "body")
+    List<Post> findWithBodyByIdIn(Collection<Long> ids);
 }
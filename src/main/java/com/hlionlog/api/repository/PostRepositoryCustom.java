@@ -1,11 +1,35 @@
 package com.hlionlog.api.repository;
 
 import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.domain.PostEditor;
 import com.hlionlog.api.request.PostSearch;
+import com.hlionlog.api.response.PostSummaryResponse;
+import com.hlionlog.api.response.PostVersion;
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.types.Predicate;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PostRepositoryCustom {
 
     List<Post> getList(PostSearch postSearch);
+
+    List<PostSummaryResponse> getSummaries(PostSearch postSearch);
+
+    List<PostSummaryResponse> getSummaries(Collection<Long> ids);
+
+    PostVersion getVersion(Long id);
+
+    List<Post> getListWithoutExcerpt(Long lastId, int limit);
+
+    CloseableIterator<Post> iterateAll(int fetchSize);
+
+    long editPost(Long id, PostEditor postEditor, Long expectedVersion);
+
+    long deletePost(Long id);
+
+    long deletePosts(Collection<Long> ids);
+
+    List<Long> getIds(Predicate condition);
 }
@@ -1,25 +1,227 @@
 package com.hlionlog.api.repository;
 
 import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.domain.PostContentCodec;
+import com.hlionlog.api.domain.PostEditor;
 import com.hlionlog.api.request.PostSearch;
+import com.hlionlog.api.request.PostSort;
+import com.hlionlog.api.response.PostSummaryResponse;
+import com.hlionlog.api.response.PostVersion;
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.DateTimePath;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import static com.hlionlog.api.domain.QPost.post;
+import static com.hlionlog.api.domain.QPostBody.postBody;
 
 @RequiredArgsConstructor
 public class PostRepositoryImpl implements PostRepositoryCustom {
 
     private final JPAQueryFactory jpaQueryFactory;
 
+    // 엔티티를 거치지 않는 수정도 PostBodyListener와 같은 기준으로 압축한다.
+    @Value("${hlionlog.post.content.compression.enabled:false}")
+    private boolean compress;
+
+    // 조회 메서드는 readOnly 트랜잭션 -> replica 라우팅을 켜면 replica에서 읽는다. (쓰기 트랜잭션 안에서 부르면 그 트랜잭션에 참여)
     @Override
+    @Transactional(readOnly = true)
     public List<Post> getList(PostSearch postSearch) {
         return jpaQueryFactory.selectFrom(post)
+                .where(conditions(postSearch))
+                .limit(postSearch.getSize())
+                .offset(postSearch.getOffset())
+                .orderBy(orderBy(postSearch.getSort()))
+                .fetch();
+    }
+
+    // 목록에서는 content(@Lob)를 읽지 않고 미리 잘라둔 excerpt 컬럼만 DTO로 바로 조회한다.
+    @Override
+    @Transactional(readOnly = true)
+    public List<PostSummaryResponse> getSummaries(PostSearch postSearch) {
+        return jpaQueryFactory.select(Projections.constructor(PostSummaryResponse.class,
+                        post.id,
+                        post.title,
+                        post.excerpt,
+                        post.version))
+                .from(post)
+                .where(conditions(postSearch))
                 .limit(postSearch.getSize())
                 .offset(postSearch.getOffset())
-                .orderBy(post.id.desc())
+                .orderBy(orderBy(postSearch.getSort()))
+                .fetch();
+    }
+
+    // 검색 결과처럼 id가 먼저 정해진 경우 (순서는 호출한 쪽에서 맞춘다)
+    @Override
+    @Transactional(readOnly = true)
+    public List<PostSummaryResponse> getSummaries(Collection<Long> ids) {
+        return jpaQueryFactory.select(Projections.constructor(PostSummaryResponse.class,
+                        post.id,
+                        post.title,
+                        post.excerpt,
+                        post.version))
+                .from(post)
+                .where(post.id.in(ids))
+                .fetch();
+    }
+
+    // 조건부 조회용 -> 본문 없이 버전만 읽는다.
+    @Override
+    @Transactional(readOnly = true)
+    public PostVersion getVersion(Long id) {
+        return jpaQueryFactory.select(Projections.constructor(PostVersion.class,
+                        post.id,
+                        post.version,
+                        post.views,
+                        post.modifiedAt))
+                .from(post)
+                .where(post.id.eq(id))
+                .fetchOne();
+    }
+
+    // excerpt를 만들려면 본문이 필요하므로 함께 읽는다.
+    @Override
+    public List<Post> getListWithoutExcerpt(Long lastId, int limit) {
+        return jpaQueryFactory.selectFrom(post)
+                .join(post.body).fetchJoin()
+                .where(post.excerpt.isNull(), post.id.gt(lastId))
+                .limit(limit)
+                .orderBy(post.id.asc())
                 .fetch();
     }
+
+    // 전체 글을 한 번에 메모리에 올리지 않고 forward-only 커서로 fetchSize 만큼씩 DB에서 가져온다.
+    @Override
+    public CloseableIterator<Post> iterateAll(int fetchSize) {
+        return jpaQueryFactory.selectFrom(post)
+                .join(post.body).fetchJoin()
+                .orderBy(post.id.asc())
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .iterate();
+    }
+
+    // 엔티티를 읽지 않고(= content @Lob 로딩 없이) post, post_body UPDATE 각 한 번으로 수정한다. 반환값은 변경된 글 수
+    // expectedVersion이 있으면 버전이 같을 때만 수정한다. (compare-and-set, 락을 잡지 않음)
+    @Override
+    public long editPost(Long id, PostEditor postEditor, Long expectedVersion) {
+        long updated = jpaQueryFactory.update(post)
+                .set(post.title, postEditor.getTitle())
+                .set(post.excerpt, Post.excerptOf(postEditor.getContent()))
+                .set(post.version, post.version.add(1L))
+                .set(post.modifiedAt, LocalDateTime.now())
+                .where(post.id.eq(id), versionEq(expectedVersion))
+                .execute();
+
+        if (updated > 0) {
+            byte[] compressed = compress ? PostContentCodec.compress(postEditor.getContent()) : null;
+            jpaQueryFactory.update(postBody)
+                    .set(postBody.content, compressed == null ? postEditor.getContent() : null)
+                    .set(postBody.compressedContent, compressed)
+                    .where(postBody.id.eq(id))
+                    .execute();
+        }
+        return updated;
+    }
+
+    // bulk delete는 cascade가 적용되지 않으므로 본문도 직접 지운다. (post가 post_body를 참조하므로 post 먼저)
+    @Override
+    public long deletePost(Long id) {
+        long deleted = jpaQueryFactory.delete(post)
+                .where(post.id.eq(id))
+                .execute();
+
+        if (deleted > 0) {
+            jpaQueryFactory.delete(postBody)
+                    .where(postBody.id.eq(id))
+                    .execute();
+        }
+        return deleted;
+    }
+
+    @Override
+    public long deletePosts(Collection<Long> ids) {
+        long deleted = jpaQueryFactory.delete(post)
+                .where(post.id.in(ids))
+                .execute();
+
+        jpaQueryFactory.delete(postBody)
+                .where(postBody.id.in(ids))
+                .execute();
+        return deleted;
+    }
+
+    @Override
+    public List<Long> getIds(Predicate condition) {
+        return jpaQueryFactory.select(post.id)
+                .from(post)
+                .where(condition)
+                .fetch();
+    }
+
+    private BooleanExpression versionEq(Long expectedVersion) {
+        return expectedVersion == null ? null : post.version.eq(expectedVersion);
+    }
+
+    // 값이 있는 조건만 넣는다. (null은 where 절에서 빠진다)
+    private Predicate[] conditions(PostSearch postSearch) {
+        return new Predicate[]{
+                cursor(postSearch.getCursor(), postSearch.getSort()),
+                titleStartsWith(postSearch.getTitlePrefix()),
+                between(post.createdAt, postSearch.getCreatedFrom(), postSearch.getCreatedTo()),
+                between(post.modifiedAt, postSearch.getModifiedFrom(), postSearch.getModifiedTo())
+        };
+    }
+
+    // offset은 앞 페이지를 모두 읽고 버리므로, cursor가 있으면 인덱스 탐색으로 바로 시작 위치를 찾는다.
+    private BooleanExpression cursor(Long cursor, PostSort sort) {
+        if (cursor == null) {
+            return null;
+        }
+        return sort == PostSort.OLDEST ? post.id.gt(cursor) : post.id.lt(cursor);
+    }
+
+    // LIKE 'prefix%' 대신 범위 조건 -> 바인딩 파라미터여도 title 인덱스 범위 탐색을 쓴다.
+    private BooleanExpression titleStartsWith(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        return post.title.goe(prefix).and(post.title.lt(prefix + Character.MAX_VALUE));
+    }
+
+    private BooleanExpression between(DateTimePath<LocalDateTime> path, LocalDateTime from, LocalDateTime to) {
+        BooleanExpression after = from == null ? null : path.goe(from);
+        BooleanExpression before = to == null ? null : path.lt(to);
+        if (after == null) {
+            return before;
+        }
+        return before == null ? after : after.and(before);
+    }
+
+    // 같은 값이면 최신 글 먼저 -> 페이지 사이에 순서가 바뀌지 않는다.
+    private OrderSpecifier<?>[] orderBy(PostSort sort) {
+        switch (sort) {
+            case OLDEST:
+                return new OrderSpecifier<?>[]{post.id.asc()};
+            case TITLE:
+                return new OrderSpecifier<?>[]{post.title.asc(), post.id.desc()};
+            case MODIFIED:
+                return new OrderSpecifier<?>[]{post.modifiedAt.desc(), post.id.desc()};
+            default:
+                return new OrderSpecifier<?>[]{post.id.desc()};
+        }
+    }
 }
@@ -1,24 +1,77 @@
 package com.hlionlog.api.request;
 
+import com.hlionlog.api.exception.InvalidRequest;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 import static java.lang.Math.*;
 
 @Getter @Setter
-@Builder
 public class PostSearch {
 
     private static final int MAX_SIZE = 2000;
 
-    @Builder.Default
-    private Integer page =1;
+    private Integer page;
+
+    private Integer size;
+
+    // 이전 페이지의 마지막 글 id -> 값이 있으면 offset 대신 id < cursor 로 조회 (OLDEST는 id > cursor)
+    private Long cursor;
+
+    // 아래 조건은 값이 있는 것만 where 절에 들어간다. (모두 인덱스가 있는 컬럼)
+    private String titlePrefix;
+
+    // 날짜는 ISO-8601 (2022-07-01T00:00:00), from <= 값 < to
+    private LocalDateTime createdFrom;
+
+    private LocalDateTime createdTo;
+
+    private LocalDateTime modifiedFrom;
+
+    private LocalDateTime modifiedTo;
 
-    @Builder.Default
-    private Integer size = 10;
+    private PostSort sort;
+
+    @Builder
+    public PostSearch(Integer page, Integer size, Long cursor, String titlePrefix,
+                      LocalDateTime createdFrom, LocalDateTime createdTo,
+                      LocalDateTime modifiedFrom, LocalDateTime modifiedTo, PostSort sort) {
+        this.page = page == null ? 1 : page;
+        this.size = size == null ? 10 : size;
+        this.cursor = cursor;
+        this.titlePrefix = titlePrefix;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+        this.modifiedFrom = modifiedFrom;
+        this.modifiedTo = modifiedTo;
+        this.sort = sort == null ? PostSort.LATEST : sort;
+    }
+
+    public boolean isCursorMode() {
+        return cursor != null;
+    }
+
+    // 조건 없이 최신순 -> 목록 캐시 대상
+    public boolean isDefaultView() {
+        return sort == PostSort.LATEST
+                && (titlePrefix == null || titlePrefix.isEmpty())
+                && createdFrom == null && createdTo == null
+                && modifiedFrom == null && modifiedTo == null;
+    }
 
     public long getOffset() {
+        if (isCursorMode()) {
+            return 0;
+        }
         return (long) (max(1, page) - 1 ) * min(size, MAX_SIZE);
     }
+
+    public void validate() {
+        if (isCursorMode() && !sort.isKeyset()) {
+            throw new InvalidRequest("cursor", sort + " 정렬에서는 cursor를 사용할 수 없습니다. page를 사용해주세요.");
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package com.hlionlog.api.request;
+
+/**
+ * 글 목록 정렬 (?sort=LATEST)
+ * 모두 인덱스가 있는 컬럼으로만 정렬하고, 같은 값이면 최신 글(id 큰 순)을 먼저 보여준다.
+ */
+public enum PostSort {
+
+    LATEST(true),       // id 내림차순 (기본)
+    OLDEST(true),       // id 오름차순
+    TITLE(false),       // 제목 오름차순
+    MODIFIED(false);    // 최근 수정 순
+
+    // id 기준 정렬만 cursor(keyset) 페이징을 쓸 수 있다.
+    private final boolean keyset;
+
+    PostSort(boolean keyset) {
+        this.keyset = keyset;
+    }
+
+    public boolean isKeyset() {
+        return keyset;
+    }
+}
@@ -0,0 +1,17 @@
+package com.hlionlog.api.response;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+public class PostBatchError {
+
+    private final int index;
+    private final Map<String, String> validation;
+
+    public PostBatchError(int index, Map<String, String> validation) {
+        this.index = index;
+        this.validation = validation;
+    }
+}
@@ -0,0 +1,30 @@
+package com.hlionlog.api.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * {
+ * "total": 3,
+ * "saved": 2,
+ * "errors": [
+ * { "index": 1, "validation": { "title": "제목에 바보는 포함될 수 없습니다." } }
+ * ]
+ * }
+ */
+@Getter
+public class PostBatchResponse {
+
+    private final int total;
+    private final int saved;
+    private final List<PostBatchError> errors;
+
+    @Builder
+    public PostBatchResponse(int total, int saved, List<PostBatchError> errors) {
+        this.total = total;
+        this.saved = saved;
+        this.errors = errors;
+    }
+}
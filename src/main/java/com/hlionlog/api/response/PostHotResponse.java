@@ -0,0 +1,22 @@
+package com.hlionlog.api.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 최근 조회가 많은 글 -> recentViews는 최근 조회일수록 크게 반영한 값 (오래된 조회는 점점 줄어든다)
+ */
+@Getter
+public class PostHotResponse {
+
+    private final Long id;
+    private final String title;
+    private final long recentViews;
+
+    @Builder
+    public PostHotResponse(Long id, String title, long recentViews) {
+        this.id = id;
+        this.title = title;
+        this.recentViews = recentViews;
+    }
+}
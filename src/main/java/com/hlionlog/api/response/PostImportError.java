@@ -0,0 +1,17 @@
+package com.hlionlog.api.response;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+public class PostImportError {
+
+    private final long line;
+    private final Map<String, String> validation;
+
+    public PostImportError(long line, Map<String, String> validation) {
+        this.line = line;
+        this.validation = validation;
+    }
+}
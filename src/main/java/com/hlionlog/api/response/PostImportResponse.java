@@ -0,0 +1,44 @@
+package com.hlionlog.api.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * {
+ * "importId": "seed-2022-07",
+ * "committedLines": 1000000,
+ * "imported": 999998,
+ * "rejected": 2,
+ * "skipped": 0,
+ * "elapsedMillis": 52000,
+ * "linesPerSecond": 19230,
+ * "errors": [ { "line": 17, "validation": { "title": "타이틀을 입력해주세요." } } ]
+ * }
+ */
+@Getter
+public class PostImportResponse {
+
+    private final String importId;
+    private final long committedLines;
+    private final long imported;
+    private final long rejected;
+    private final long skipped;
+    private final long elapsedMillis;
+    private final long linesPerSecond;
+    private final List<PostImportError> errors;
+
+    @Builder
+    public PostImportResponse(String importId, long committedLines, long imported, long rejected, long skipped,
+                              long elapsedMillis, long linesPerSecond, List<PostImportError> errors) {
+        this.importId = importId;
+        this.committedLines = committedLines;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.skipped = skipped;
+        this.elapsedMillis = elapsedMillis;
+        this.linesPerSecond = linesPerSecond;
+        this.errors = errors;
+    }
+}
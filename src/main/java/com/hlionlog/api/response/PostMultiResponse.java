@@ -0,0 +1,25 @@
+package com.hlionlog.api.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * {
+ * "posts": [ { "id": 3, ... }, { "id": 1, ... } ],
+ * "missing": [ 2 ]
+ * }
+ */
+@Getter
+public class PostMultiResponse {
+
+    private final List<PostResponse> posts;
+    private final List<Long> missing;
+
+    @Builder
+    public PostMultiResponse(List<PostResponse> posts, List<Long> missing) {
+        this.posts = posts;
+        this.missing = missing;
+    }
+}
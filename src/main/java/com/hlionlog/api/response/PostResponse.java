@@ -1,27 +1,57 @@
 package com.hlionlog.api.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.hlionlog.api.domain.Post;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.time.LocalDateTime;
+
 @Getter
 public class PostResponse {
     private final Long id;
     private final String title;
     private final String content;
 
+    // 조회수는 본문(ETag로 검증하는 내용)과 상관없이 계속 바뀌므로 X-View-Count 헤더로 내려간다.
+    @JsonIgnore
+    private final long views;
+
+    // 응답 본문이 아니라 ETag, Last-Modified 헤더로 내려간다.
+    @JsonIgnore
+    private final Long version;
+    @JsonIgnore
+    private final LocalDateTime modifiedAt;
+
     // 생성자 오버로딩
     public PostResponse(Post post) {
         this.id = post.getId();
         this.title = post.getTitle();
         this.content = post.getContent();
+        this.views = post.getViews();
+        this.version = post.getVersion();
+        this.modifiedAt = post.getModifiedAt();
     }
 
     @Builder
-    public PostResponse(Long id, String title, String content) {
+    public PostResponse(Long id, String title, String content, long views, Long version, LocalDateTime modifiedAt) {
         this.id = id;
         this.title = title.substring(0, Math.min(title.length(), 10));
         this.content = content;
+        this.views = views;
+        this.version = version;
+        this.modifiedAt = modifiedAt;
     }
 
+    // 캐시된 응답에 아직 DB에 반영되지 않은 조회수를 더한다.
+    public PostResponse plusViews(long pendingViews) {
+        if (pendingViews == 0) {
+            return this;
+        }
+        return new PostResponse(id, title, content, views + pendingViews, version, modifiedAt);
+    }
+
+    public PostVersion toVersion() {
+        return new PostVersion(id, version, views, modifiedAt);
+    }
 }
@@ -0,0 +1,25 @@
+package com.hlionlog.api.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * {
+ * "total": 42,
+ * "posts": [ { "id": 7, "title": "...", "excerpt": "..." }, ... ]
+ * }
+ */
+@Getter
+public class PostSearchResponse {
+
+    private final long total;
+    private final List<PostSummaryResponse> posts;
+
+    @Builder
+    public PostSearchResponse(long total, List<PostSummaryResponse> posts) {
+        this.total = total;
+        this.posts = posts;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hlionlog.api.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 글 목록 응답 -> 본문(content) 전체 대신 앞부분(excerpt)만 내려준다.
+ */
+@Getter
+public class PostSummaryResponse {
+
+    private final Long id;
+    private final String title;
+    private final String excerpt;
+
+    // 목록 ETag 계산용
+    @JsonIgnore
+    private final Long version;
+
+    @Builder
+    public PostSummaryResponse(Long id, String title, String excerpt, Long version) {
+        this.id = id;
+        this.title = title;
+        this.excerpt = excerpt;
+        this.version = version;
+    }
+}
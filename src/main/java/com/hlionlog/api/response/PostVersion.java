@@ -0,0 +1,69 @@
+package com.hlionlog.api.response;
+
+import com.hlionlog.api.exception.PostModified;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 글의 버전 정보 -> ETag, Last-Modified 헤더 값
+ * 조회수(views)는 ETag에 넣지 않고 X-View-Count 헤더로 따로 내려간다. (304 응답에도 포함)
+ */
+@Getter
+public class PostVersion {
+
+    private final Long id;
+    private final Long version;
+    private final long views;
+    private final LocalDateTime modifiedAt;
+
+    public PostVersion(Long id, Long version, LocalDateTime modifiedAt) {
+        this(id, version, 0, modifiedAt);
+    }
+
+    public PostVersion(Long id, Long version, long views, LocalDateTime modifiedAt) {
+        this.id = id;
+        this.version = version;
+        this.views = views;
+        this.modifiedAt = modifiedAt;
+    }
+
+    public PostVersion plusViews(long pendingViews) {
+        if (pendingViews == 0) {
+            return this;
+        }
+        return new PostVersion(id, version, views + pendingViews, modifiedAt);
+    }
+
+    // 같은 글의 같은 버전이면 내용도 같으므로 strong ETag로 쓸 수 있다.
+    public String getETag() {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * If-Match 헤더에서 버전을 꺼낸다. 없거나 * 이면 null (버전 확인 없이 수정)
+     * 다른 글의 ETag, weak ETag, 형식이 다른 값은 현재 버전과 같을 수 없으므로 PostModified
+     */
+    public static Long parseIfMatch(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+
+        String eTag = ifMatch.trim();
+        String prefix = "\"" + id + "-";
+        if (!eTag.startsWith(prefix) || !eTag.endsWith("\"")) {
+            throw new PostModified();
+        }
+        try {
+            return Long.parseLong(eTag.substring(prefix.length(), eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PostModified();
+        }
+    }
+
+    // epoch millis, 없으면 -1 (Last-Modified 헤더를 쓰지 않음)
+    public long getLastModified() {
+        return modifiedAt == null ? -1 : modifiedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,273 @@
+package com.hlionlog.api.search;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 제목 + 본문 역색인 (term -> 글 id -> 등장 횟수). 점수는 BM25
+ *
+ * 글 작성/수정/삭제 시 커밋 이후에 반영한다. (롤백된 내용이 검색되지 않도록)
+ * 검색은 검색어 term의 posting만 읽으므로 전체 글 수가 아니라 검색어가 들어간 글 수에 비례한다.
+ * 검색끼리는 동시에, 색인 변경은 하나씩 실행한다.
+ */
+@Component
+public class PostSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // 제목에 들어간 단어는 본문보다 더 관련 있는 것으로 본다.
+    private static final int TITLE_BOOST = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index current = new Index();
+
+    // 다시 만드는 중인 색인과, 그 동안 들어온 변경 -> 다 만든 뒤 순서대로 다시 적용한다.
+    private Index rebuilding;
+    private List<Runnable> pendingChanges;
+
+    public void index(Long id, String title, String content) {
+        Map<String, Integer> terms = termsOf(title, content);
+        afterCommit(() -> write(index -> index.put(id, terms)));
+    }
+
+    public void remove(Long id) {
+        afterCommit(() -> write(index -> index.remove(id)));
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        List<Long> targets = new ArrayList<>(ids);
+        afterCommit(() -> write(index -> targets.forEach(index::remove)));
+    }
+
+    public SearchResult search(String query, long offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty()) {
+            return new SearchResult(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = current.score(terms);
+            return new SearchResult(scores.size(), top(scores, offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            current = new Index();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 테이블에서 색인을 다시 만든다. beginRebuild -> addRebuilt (글마다) -> commitRebuild (또는 abortRebuild)
+     * 다시 만드는 동안에도 기존 색인으로 검색할 수 있다.
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding != null) {
+                throw new IllegalStateException("이미 검색 색인을 다시 만드는 중입니다.");
+            }
+            rebuilding = new Index();
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 다시 만드는 색인은 다른 스레드가 읽지 않으므로 락 없이 채운다.
+    public void addRebuilt(Long id, String title, String content) {
+        rebuilding.put(id, termsOf(title, content));
+    }
+
+    public void commitRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(Runnable::run);
+            current = rebuilding;
+        } finally {
+            rebuilding = null;
+            pendingChanges = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = null;
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(IndexChange change) {
+        lock.writeLock().lock();
+        try {
+            change.apply(current);
+            if (rebuilding != null) {
+                Index target = rebuilding;
+                pendingChanges.add(() -> change.apply(target));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, Integer> termsOf(String title, String content) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String term : Tokenizer.tokenize(title)) {
+            terms.merge(term, TITLE_BOOST, Integer::sum);
+        }
+        for (String term : Tokenizer.tokenize(content)) {
+            terms.merge(term, 1, Integer::sum);
+        }
+        return terms;
+    }
+
+    // 전체를 정렬하지 않고 offset + limit 개만 남기는 heap으로 상위 글을 고른다. (점수가 같으면 최신 글 먼저)
+    private List<Long> top(Map<Long, Double> scores, long offset, int limit) {
+        long wanted = offset + limit;
+        if (limit <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+
+        Comparator<Map.Entry<Long, Double>> byRank = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(byRank);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        // heap에서는 낮은 순으로 나오므로 뒤집어서 offset 이후만
+        List<Long> page = new ArrayList<>(limit);
+        for (int i = ranked.size() - 1 - (int) offset; i >= 0 && page.size() < limit; i--) {
+            page.add(ranked.get(i));
+        }
+        return page;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface IndexChange {
+        void apply(Index index);
+    }
+
+    private static final class Index {
+
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+        private long totalLength;
+
+        void put(Long id, Map<String, Integer> terms) {
+            remove(id);
+
+            int length = 0;
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new HashMap<>())
+                        .put(id, term.getValue());
+                length += term.getValue();
+            }
+            documents.put(id, new Document(terms.keySet().toArray(new String[0]), length));
+            totalLength += length;
+        }
+
+        void remove(Long id) {
+            Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= document.length;
+        }
+
+        Map<Long, Double> score(List<String> terms) {
+            Map<Long, Double> scores = new HashMap<>();
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return scores;
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                    int frequency = entry.getValue();
+                    int length = documents.get(entry.getKey()).length;
+                    double score = idf * frequency * (K1 + 1)
+                            / (frequency + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(entry.getKey(), score, Double::sum);
+                }
+            }
+            return scores;
+        }
+    }
+
+    private static final class Document {
+
+        private final String[] terms;
+        private final int length;
+
+        Document(String[] terms, int length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.hlionlog.api.search;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 검색 결과 -> 검색어가 하나라도 들어간 글 수와, 요청한 페이지의 글 id (점수 높은 순)
+ */
+@Getter
+public class SearchResult {
+
+    private final long total;
+    private final List<Long> ids;
+
+    public SearchResult(long total, List<Long> ids) {
+        this.total = total;
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hlionlog.api.service;
+
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.exception.InvalidRequest;
+import com.hlionlog.api.request.PostCreate;
+import com.hlionlog.api.response.PostBatchError;
+import com.hlionlog.api.response.PostBatchResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class PostBatchService {
+
+    private static final int MAX_POSTS = 10_000;
+
+    private final PostCreateValidator postCreateValidator;
+    private final PostBatchWriter postBatchWriter;
+    private final int chunkSize;
+
+    public PostBatchService(PostCreateValidator postCreateValidator,
+                            PostBatchWriter postBatchWriter,
+                            @Value("${hlionlog.batch.chunk-size}") int chunkSize) {
+        this.postCreateValidator = postCreateValidator;
+        this.postBatchWriter = postBatchWriter;
+        this.chunkSize = chunkSize;
+    }
+
+    // 검증에 실패한 글은 건너뛰고 나머지는 chunk 단위 트랜잭션으로 저장한다.
+    // 실패한 글은 요청 배열의 index와 함께 알려준다.
+    public PostBatchResponse writeAll(List<PostCreate> postCreates) {
+        if (postCreates.size() > MAX_POSTS) {
+            throw new InvalidRequest("posts", "한 번에 최대 " + MAX_POSTS + "개까지 저장할 수 있습니다.");
+        }
+
+        List<PostBatchError> errors = new ArrayList<>();
+        List<Integer> chunk = new ArrayList<>();
+        int saved = 0;
+
+        for (int i = 0; i < postCreates.size(); i++) {
+            Map<String, String> validation = postCreateValidator.validate(postCreates.get(i));
+            if (!validation.isEmpty()) {
+                errors.add(new PostBatchError(i, validation));
+                continue;
+            }
+
+            chunk.add(i);
+            if (chunk.size() == chunkSize) {
+                saved += save(postCreates, chunk, errors);
+                chunk.clear();
+            }
+        }
+        saved += save(postCreates, chunk, errors);
+
+        errors.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return PostBatchResponse.builder()
+                .total(postCreates.size())
+                .saved(saved)
+                .errors(errors)
+                .build();
+    }
+
+    // INSERT는 persist 시점 또는 커밋 시점에 실패할 수 있고, 시점에 따라 예외 타입이 다르다.
+    private int save(List<PostCreate> postCreates, List<Integer> indexes, List<PostBatchError> errors) {
+        if (indexes.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            postBatchWriter.saveAll(toEntities(postCreates, indexes));
+            return indexes.size();
+        } catch (RuntimeException e) {
+            log.warn("chunk 저장 실패, 한 건씩 다시 저장합니다. size={}", indexes.size(), e);
+        }
+
+        // chunk 중 어떤 글이 문제인지 찾기 위해 한 건씩 다시 저장
+        int saved = 0;
+        for (Integer index : indexes) {
+            try {
+                postBatchWriter.saveAll(toEntities(postCreates, List.of(index)));
+                saved++;
+            } catch (RuntimeException e) {
+                errors.add(new PostBatchError(index, Map.of("post", "저장에 실패했습니다.")));
+            }
+        }
+        return saved;
+    }
+
+    // 롤백된 엔티티는 id가 채워져 있어 다시 persist 할 수 없으므로 매번 새로 만든다.
+    private List<Post> toEntities(List<PostCreate> postCreates, List<Integer> indexes) {
+        return indexes.stream()
+                .map(index -> postCreates.get(index).toEntity())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,36 @@
+package com.hlionlog.api.service;
+
+import com.hlionlog.api.cache.PostListCache;
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.search.PostSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * 여러 글을 한 트랜잭션으로 저장한다.
+ * flush 시점에 hibernate.jdbc.batch_size 단위로 INSERT가 JDBC 배치로 묶인다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostBatchWriter {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final PostListCache postListCache;
+    private final PostSearchIndex postSearchIndex;
+
+    @Transactional
+    public void saveAll(List<Post> posts) {
+        for (Post post : posts) {
+            em.persist(post);
+            postSearchIndex.index(post.getId(), post.getTitle(), post.getContent());
+        }
+        postListCache.invalidateAll();
+    }
+}
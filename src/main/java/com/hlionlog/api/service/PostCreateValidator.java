@@ -0,0 +1,44 @@
+package com.hlionlog.api.service;
+
+import com.hlionlog.api.exception.InvalidRequest;
+import com.hlionlog.api.request.PostCreate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 여러 건을 한 번에 받을 때 @Valid + PostCreate.validate()와 같은 규칙으로 한 건씩 검증한다.
+ * 예외를 던지는 대신 필드별 오류를 돌려준다. (비어있으면 통과)
+ */
+@Component
+@RequiredArgsConstructor
+public class PostCreateValidator {
+
+    private final Validator validator;
+
+    public Map<String, String> validate(PostCreate postCreate) {
+        Map<String, String> validation = new HashMap<>();
+        if (postCreate == null) {
+            validation.put("post", "글을 입력해주세요.");
+            return validation;
+        }
+
+        for (ConstraintViolation<PostCreate> violation : validator.validate(postCreate)) {
+            validation.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        if (!validation.isEmpty()) {
+            return validation;
+        }
+
+        try {
+            postCreate.validate();
+        } catch (InvalidRequest e) {
+            validation.putAll(e.getValidation());
+        }
+        return validation;
+    }
+}
@@ -0,0 +1,51 @@
+package com.hlionlog.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.repository.PostRepository;
+import com.hlionlog.api.response.PostResponse;
+import com.mysema.commons.lang.CloseableIterator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostExportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final PostRepository postRepository;
+    private final ObjectMapper objectMapper;
+
+    // 글 한 개당 JSON 한 줄(NDJSON)로 내보낸다.
+    // 내보낸 엔티티는 FETCH_SIZE 마다 영속성 컨텍스트에서 비워서 글 수와 상관없이 메모리 사용량이 일정하다.
+    @Transactional(readOnly = true)
+    public long export(OutputStream out) throws IOException {
+        long count = 0;
+        try (CloseableIterator<Post> posts = postRepository.iterateAll(FETCH_SIZE)) {
+            while (posts.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(new PostResponse(posts.next())));
+                out.write('\n');
+
+                if (++count % FETCH_SIZE == 0) {
+                    em.clear();
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.info("글 내보내기 완료. count={}", count);
+        return count;
+    }
+}
@@ -0,0 +1,187 @@
+package com.hlionlog.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.domain.PostImport;
+import com.hlionlog.api.exception.InvalidRequest;
+import com.hlionlog.api.repository.PostImportRepository;
+import com.hlionlog.api.request.PostCreate;
+import com.hlionlog.api.response.PostImportError;
+import com.hlionlog.api.response.PostImportResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * NDJSON(한 줄에 글 하나)을 한 줄씩 읽어서 chunk 단위 트랜잭션으로 저장한다.
+ *
+ * 요청 본문을 한 번에 메모리에 올리지 않고, chunk를 커밋하는 동안에는 본문을 읽지 않으므로
+ * 클라이언트는 TCP 흐름 제어로 자연스럽게 DB 속도에 맞춰진다.
+ * 같은 importId로 다시 요청하면 이미 커밋된 줄은 건너뛰고 이어서 저장한다.
+ */
+@Slf4j
+@Service
+public class PostImportService {
+
+    private static final int MAX_ERRORS = 100;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final PostImportRepository postImportRepository;
+    private final PostBatchWriter postBatchWriter;
+    private final PostCreateValidator postCreateValidator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public PostImportService(PostImportRepository postImportRepository,
+                             PostBatchWriter postBatchWriter,
+                             PostCreateValidator postCreateValidator,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${hlionlog.batch.chunk-size}") int chunkSize) {
+        this.postImportRepository = postImportRepository;
+        this.postBatchWriter = postBatchWriter;
+        this.postCreateValidator = postCreateValidator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param importId 이어서 받기 위한 식별자, 없으면 새로 만든다.
+     * @param offset   클라이언트가 이미 건너뛰고 보낸 줄 수 (본문 첫 줄 = offset + 1 번째 줄)
+     */
+    public PostImportResponse importPosts(String importId, long offset, InputStream body) throws IOException {
+        long startedAt = System.nanoTime();
+        String id = importId == null ? UUID.randomUUID().toString() : importId;
+        long committedLines = postImportRepository.findById(id)
+                .map(PostImport::getCommittedLines)
+                .orElse(0L);
+
+        if (offset > committedLines) {
+            throw new InvalidRequest("offset", "저장된 위치(" + committedLines + ")보다 뒤에서 시작할 수 없습니다.");
+        }
+
+        List<Post> chunk = new ArrayList<>();
+        List<PostImportError> errors = new ArrayList<>();
+        long lineNumber = offset;
+        long imported = 0;
+        long rejected = 0;
+        long chunkRejected = 0;
+        long skipped = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber <= committedLines) {
+                skipped++;
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+
+            Map<String, String> validation = parse(line, chunk);
+            if (!validation.isEmpty()) {
+                rejected++;
+                chunkRejected++;
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(new PostImportError(lineNumber, validation));
+                }
+            }
+
+            if (chunk.size() == chunkSize) {
+                commit(id, chunk, lineNumber, chunkRejected);
+                imported += chunk.size();
+                chunk.clear();
+                chunkRejected = 0;
+            }
+        }
+
+        if (lineNumber > committedLines) {
+            commit(id, chunk, lineNumber, chunkRejected);
+            imported += chunk.size();
+        }
+
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        long processed = lineNumber - offset - skipped;
+        log.info("글 가져오기 완료. importId={}, imported={}, rejected={}, skipped={}, elapsed={}ms",
+                id, imported, rejected, skipped, elapsedMillis);
+
+        return PostImportResponse.builder()
+                .importId(id)
+                .committedLines(Math.max(lineNumber, committedLines))
+                .imported(imported)
+                .rejected(rejected)
+                .skipped(skipped)
+                .elapsedMillis(elapsedMillis)
+                .linesPerSecond(elapsedMillis == 0 ? processed : processed * 1000 / elapsedMillis)
+                .errors(errors)
+                .build();
+    }
+
+    // 연결이 끊겼던 클라이언트는 여기서 committedLines를 확인하고 그 다음 줄부터 다시 보내면 된다.
+    public PostImportResponse getStatus(String importId) {
+        PostImport postImport = postImportRepository.findById(importId)
+                .orElseGet(() -> new PostImport(importId));
+
+        return PostImportResponse.builder()
+                .importId(postImport.getId())
+                .committedLines(postImport.getCommittedLines())
+                .imported(postImport.getImported())
+                .rejected(postImport.getRejected())
+                .errors(List.of())
+                .build();
+    }
+
+    // 검증에 통과하면 chunk에 담고, 실패하면 필드별 오류를 돌려준다.
+    private Map<String, String> parse(String line, List<Post> chunk) {
+        PostCreate postCreate;
+        try {
+            postCreate = objectMapper.readValue(line, PostCreate.class);
+        } catch (JsonProcessingException e) {
+            return Map.of("line", "JSON 형식이 올바르지 않습니다.");
+        }
+
+        Map<String, String> validation = postCreateValidator.validate(postCreate);
+        if (validation.isEmpty()) {
+            chunk.add(postCreate.toEntity());
+        }
+        return validation;
+    }
+
+    // 글 저장과 진행 위치 갱신을 한 트랜잭션으로 묶는다.
+    // 요청 동안 EntityManager가 유지되므로(open-in-view) chunk 마다 영속성 컨텍스트를 비워서 메모리 사용량을 일정하게 둔다.
+    private void commit(String importId, List<Post> chunk, long lineNumber, long chunkRejected) {
+        transactionTemplate.executeWithoutResult(status -> {
+            postBatchWriter.saveAll(chunk);
+
+            PostImport postImport = postImportRepository.findById(importId)
+                    .orElseGet(() -> new PostImport(importId));
+            postImport.commit(lineNumber, chunk.size(), chunkRejected);
+            postImportRepository.save(postImport);
+
+            em.flush();
+            em.clear();
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.hlionlog.api.service;
+
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.repository.PostRepository;
+import com.hlionlog.api.search.PostSearchIndex;
+import com.mysema.commons.lang.CloseableIterator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * 글 테이블 전체를 읽어서 검색 색인을 다시 만든다. (기동 시 한 번, 색인이 어긋났을 때)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostSearchIndexer {
+
+    private static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final PostRepository postRepository;
+    private final PostSearchIndex postSearchIndex;
+
+    @Value("${hlionlog.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    // 내보내기와 같이 forward-only 커서로 읽고 FETCH_SIZE 마다 영속성 컨텍스트를 비운다.
+    @Transactional(readOnly = true)
+    public long rebuild() {
+        long startedAt = System.nanoTime();
+        long count = 0;
+
+        postSearchIndex.beginRebuild();
+        try (CloseableIterator<Post> posts = postRepository.iterateAll(FETCH_SIZE)) {
+            while (posts.hasNext()) {
+                Post post = posts.next();
+                postSearchIndex.addRebuilt(post.getId(), post.getTitle(), post.getContent());
+
+                if (++count % FETCH_SIZE == 0) {
+                    em.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            postSearchIndex.abortRebuild();
+            throw e;
+        }
+        postSearchIndex.commitRebuild();
+
+        log.info("검색 색인 생성 완료. count={}, elapsed={}ms", count, (System.nanoTime() - startedAt) / 1_000_000);
+        return count;
+    }
+}
@@ -0,0 +1,60 @@
+package com.hlionlog.api.service;
+
+import com.hlionlog.api.exception.InvalidRequest;
+import com.hlionlog.api.repository.PostRepository;
+import com.hlionlog.api.request.PostSearch;
+import com.hlionlog.api.response.PostSearchResponse;
+import com.hlionlog.api.response.PostSummaryResponse;
+import com.hlionlog.api.search.PostSearchIndex;
+import com.hlionlog.api.search.SearchResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 제목/본문 검색. 순위는 메모리 색인(PostSearchIndex)에서 구하고, 해당 페이지 글의 요약만 DB에서 읽는다.
+ * (LIKE '%검색어%'로 본문을 전부 읽지 않는다)
+ */
+@Service
+@RequiredArgsConstructor
+public class PostSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final int MAX_SIZE = 100;
+
+    private final PostSearchIndex postSearchIndex;
+    private final PostRepository postRepository;
+
+    public PostSearchResponse search(String query, PostSearch postSearch) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequest("q", "검색어를 입력해주세요.");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new InvalidRequest("q", "검색어는 " + MAX_QUERY_LENGTH + "자까지 입력할 수 있습니다.");
+        }
+
+        // offset도 실제로 가져오는 개수(size)로 계산해야 페이지 사이에 빠지는 글이 없다.
+        int size = Math.min(postSearch.getSize(), MAX_SIZE);
+        long offset = (long) (Math.max(1, postSearch.getPage()) - 1) * size;
+        SearchResult result = postSearchIndex.search(query, offset, size);
+        if (result.getIds().isEmpty()) {
+            return new PostSearchResponse(result.getTotal(), List.of());
+        }
+
+        Map<Long, PostSummaryResponse> summaries = postRepository.getSummaries(result.getIds()).stream()
+                .collect(Collectors.toMap(PostSummaryResponse::getId, Function.identity()));
+
+        // 색인 반영 전에 지워진 글은 건너뛴다.
+        return PostSearchResponse.builder()
+                .total(result.getTotal())
+                .posts(result.getIds().stream()
+                        .filter(summaries::containsKey)
+                        .map(summaries::get)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
@@ -1,19 +1,35 @@
 package com.hlionlog.api.service;
 
+import com.hlionlog.api.cache.LocalCache;
+import com.hlionlog.api.cache.PostListCache;
+import com.hlionlog.api.cache.SingleFlight;
 import com.hlionlog.api.domain.Post;
 import com.hlionlog.api.domain.PostEditor;
+import com.hlionlog.api.exception.InvalidRequest;
+import com.hlionlog.api.exception.PostModified;
 import com.hlionlog.api.exception.PostNotFound;
 import com.hlionlog.api.repository.PostRepository;
 import com.hlionlog.api.request.PostCreate;
 import com.hlionlog.api.request.PostEdit;
 import com.hlionlog.api.request.PostSearch;
+import com.hlionlog.api.response.PostMultiResponse;
 import com.hlionlog.api.response.PostResponse;
+import com.hlionlog.api.response.PostSummaryResponse;
+import com.hlionlog.api.response.PostVersion;
+import com.hlionlog.api.search.PostSearchIndex;
+import com.hlionlog.api.view.PostViewCounter;
+import com.querydsl.core.types.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -21,54 +37,182 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PostService {
 
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final int MAX_IDS = 100;
+
     private final PostRepository postRepository;
+    private final LocalCache<Long, PostResponse> postCache;
+    private final SingleFlight<Long, PostResponse> postLoads;
+    private final PostListCache postListCache;
+    private final PostSearchIndex postSearchIndex;
+    private final PostViewCounter postViewCounter;
 
     public Long write(PostCreate postCreate) {
         Post savedPost = postRepository.save(postCreate.toEntity());
+        postListCache.invalidateAll();
+        postSearchIndex.index(savedPost.getId(), postCreate.getTitle(), postCreate.getContent());
         return savedPost.getId();
     }
 
+    // 자주 읽히는 글은 캐시에서 응답, 수정/삭제 시 캐시를 비운다.
+    // 캐시가 비어있을 때 같은 글 요청이 몰리면 DB 조회는 한 번만 하고 나머지는 그 결과를 기다린다.
+    // 캐시에는 실제로 DB를 읽은 호출만 넣는다. (기다리던 호출이 넣으면, 무효화 이전에 시작된 조회 결과가
+    // 무효화 이후의 generation으로 들어갈 수 있다)
+    // 조회수는 (DB 조회수 - 읽을 때까지 반영한 조회수)로 캐시에 넣고, 응답할 때 그 뒤로 늘어난 만큼을 더한다.
+    // 조회수를 반영할 때 캐시를 비우지 않아도 되지만, 반영 중에 읽은 값은 기준이 애매하므로 캐시에 넣지 않는다.
     public PostResponse get(Long id) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(PostNotFound::new);
-        PostResponse response = PostResponse.builder()
-                .id(post.getId())
-                .title(post.getTitle())
-                .content(post.getContent())
-                .build();
-        return response;
+        PostResponse post = postCache.getIfPresent(id);
+        if (post == null) {
+            post = postLoads.execute(id, () -> {
+                long generation = postCache.generation();
+                long sequence = postViewCounter.sequence();
+                long flushed = postViewCounter.flushed(id);
+                PostResponse loaded = toResponse(postRepository.findWithBodyById(id)
+                        .orElseThrow(PostNotFound::new))
+                        .plusViews(-flushed);
+                postViewCounter.ifNotFlushedSince(sequence, () -> postCache.putIfCurrent(id, loaded, generation));
+                return loaded;
+            });
+        }
+        return post.plusViews(postViewCounter.added(id));
+    }
 
+    // 조건부 조회(If-None-Match, If-Modified-Since) -> 캐시에 없으면 본문 없이 버전만 읽는다.
+    public PostVersion getVersion(Long id) {
+        PostResponse cached = postCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.toVersion().plusViews(postViewCounter.added(id));
+        }
+
+        PostVersion version = postRepository.getVersion(id);
+        if (version == null) {
+            throw new PostNotFound();
+        }
+        return version.plusViews(postViewCounter.pending(id));
+    }
+
+    // 여러 글을 한 번에 조회 -> 캐시에 없는 글만 IN 쿼리 한 번으로 읽는다.
+    // 없는 글이 있어도 예외 대신 missing으로 알려주고, 응답 순서는 요청한 id 순서를 따른다.
+    public PostMultiResponse getAll(Collection<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw new InvalidRequest("ids", "한 번에 최대 " + MAX_IDS + "개까지 조회할 수 있습니다.");
+        }
+
+        List<Long> requested = ids.stream()
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<Long, PostResponse> found = new HashMap<>();
+        List<Long> notCached = new ArrayList<>();
+        for (Long id : requested) {
+            PostResponse cached = postCache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                notCached.add(id);
+            }
+        }
+
+        if (!notCached.isEmpty()) {
+            long generation = postCache.generation();
+            long sequence = postViewCounter.sequence();
+            Map<Long, Long> flushed = notCached.stream()
+                    .collect(Collectors.toMap(Function.identity(), postViewCounter::flushed));
+            Map<Long, PostResponse> loaded = new HashMap<>();
+            for (Post post : postRepository.findWithBodyByIdIn(notCached)) {
+                loaded.put(post.getId(), toResponse(post).plusViews(-flushed.get(post.getId())));
+            }
+            postViewCounter.ifNotFlushedSince(sequence,
+                    () -> loaded.forEach((id, response) -> postCache.putIfCurrent(id, response, generation)));
+            found.putAll(loaded);
+        }
+
+        return PostMultiResponse.builder()
+                .posts(requested.stream()
+                        .filter(found::containsKey)
+                        .map(id -> found.get(id).plusViews(postViewCounter.added(id)))
+                        .collect(Collectors.toList()))
+                .missing(requested.stream()
+                        .filter(id -> !found.containsKey(id))
+                        .collect(Collectors.toList()))
+                .build();
     }
 
     // 글이 너무 많은 경우 -> 비용이 많이 든다.
     // 글이 1억개 있는 경우 -> DB에서 1억건의 글을 조회하는 경우 DB가 뻣을 가능성
     // DB -> Application 서버로 전달하는 시간, 트랙픽 비용 등이 많이 발생
+    // -> 목록은 본문 없이 요약(id, 제목, 앞부분)만 조회, 본문 전체는 단건 조회에서만 읽는다.
+    // -> 요청이 몰리는 앞쪽 몇 페이지는 캐시에서 응답한다.
 
-    public List<PostResponse> getList(PostSearch postSearch) {
-        return postRepository.getList(postSearch).stream()
-                .map(PostResponse::new)
-                .collect(Collectors.toList());
+    public List<PostSummaryResponse> getList(PostSearch postSearch) {
+        return postListCache.get(postSearch, () -> postRepository.getSummaries(postSearch));
     }
 
+    // 수정/삭제는 글을 먼저 조회하지 않고 쿼리 한 번으로 처리, 변경된 row가 없으면 없는 글이다.
     @Transactional
     public void edit(Long id, PostEdit postEdit) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(PostNotFound::new);
-
-        PostEditor.PostEditorBuilder editorBuilder = post.toEditor();
+        edit(id, postEdit, null);
+    }
 
-        PostEditor postEditor = editorBuilder.title(postEdit.getTitle())
+    // expectedVersion이 있으면 그 버전일 때만 수정한다.
+    // 변경된 row가 없는데 글이 있으면 그 사이에 다른 사용자가 수정한 것이다.
+    @Transactional
+    public void edit(Long id, PostEdit postEdit, Long expectedVersion) {
+        PostEditor postEditor = PostEditor.builder()
+                .title(postEdit.getTitle())
                 .content(postEdit.getContent())
                 .build();
 
-        post.edit(postEditor);
+        if (postRepository.editPost(id, postEditor, expectedVersion) == 0) {
+            if (expectedVersion != null && postRepository.existsById(id)) {
+                throw new PostModified();
+            }
+            throw new PostNotFound();
+        }
+        postCache.invalidate(id);
+        postListCache.invalidateAll();
+        postSearchIndex.index(id, postEdit.getTitle(), postEdit.getContent());
     }
 
     @Transactional
     public void delete(Long id) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(PostNotFound::new);
+        if (postRepository.deletePost(id) == 0) {
+            throw new PostNotFound();
+        }
+        postCache.invalidate(id);
+        postListCache.invalidateAll();
+        postSearchIndex.remove(id);
+    }
+
+    // 정리 작업용 일괄 삭제 -> IN 절이 너무 길어지지 않도록 나눠서 삭제
+    @Transactional
+    public long deleteAll(Collection<Long> ids) {
+        List<Long> targets = new ArrayList<>(ids);
+        long deleted = 0;
+        for (int from = 0; from < targets.size(); from += DELETE_CHUNK_SIZE) {
+            int to = Math.min(from + DELETE_CHUNK_SIZE, targets.size());
+            deleted += postRepository.deletePosts(targets.subList(from, to));
+        }
+        postCache.invalidateAll();
+        postListCache.invalidateAll();
+        postSearchIndex.removeAll(targets);
+        return deleted;
+    }
 
-        postRepository.delete(post);
+    // 본문 테이블도 지워야 하므로 조건에 맞는 id를 먼저 구한다.
+    @Transactional
+    public long deleteAll(Predicate condition) {
+        return deleteAll(postRepository.getIds(condition));
+    }
+
+    private PostResponse toResponse(Post post) {
+        return PostResponse.builder()
+                .id(post.getId())
+                .title(post.getTitle())
+                .content(post.getContent())
+                .views(post.getViews())
+                .version(post.getVersion())
+                .modifiedAt(post.getModifiedAt())
+                .build();
     }
 }
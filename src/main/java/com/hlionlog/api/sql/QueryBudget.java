@@ -0,0 +1,22 @@
+package com.hlionlog.api.sql;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 요청 하나(또는 PostService 메서드 하나)가 넘으면 안 되는 SQL 문 수 / 읽은 row 수
+ */
+@Getter
+@Component
+public class QueryBudget {
+
+    private final long statements;
+    private final long rows;
+
+    public QueryBudget(@Value("${hlionlog.query.budget.statements}") long statements,
+                       @Value("${hlionlog.query.budget.rows}") long rows) {
+        this.statements = statements;
+        this.rows = rows;
+    }
+}
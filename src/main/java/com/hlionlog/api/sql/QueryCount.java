@@ -0,0 +1,28 @@
+package com.hlionlog.api.sql;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 실행한 SQL 문 수와 ResultSet에서 읽은 row 수
+ */
+@Getter
+@ToString
+public class QueryCount {
+
+    private final long statements;
+    private final long rows;
+
+    public QueryCount(long statements, long rows) {
+        this.statements = statements;
+        this.rows = rows;
+    }
+
+    public QueryCount minus(QueryCount before) {
+        return new QueryCount(statements - before.statements, rows - before.rows);
+    }
+
+    public boolean exceeds(QueryBudget budget) {
+        return statements > budget.getStatements() || rows > budget.getRows();
+    }
+}
@@ -0,0 +1,34 @@
+package com.hlionlog.api.sql;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * PostService 메서드별로 실행된 SQL 문 수 / row 수를 잰다. (한 요청에서 어느 메서드가 쿼리를 많이 쓰는지 확인용)
+ */
+@Slf4j
+@Aspect
+@RequiredArgsConstructor
+public class QueryCountAspect {
+
+    private final QueryBudget queryBudget;
+
+    @Around("execution(public * com.hlionlog.api.service.PostService.*(..))")
+    public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryCount before = QueryCounter.snapshot();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            QueryCount count = QueryCounter.snapshot().minus(before);
+            String method = joinPoint.getSignature().toShortString();
+            if (count.exceeds(queryBudget)) {
+                log.warn("쿼리 예산 초과. {} statements={}, rows={}", method, count.getStatements(), count.getRows());
+            } else {
+                log.debug("{} statements={}, rows={}", method, count.getStatements(), count.getRows());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.hlionlog.api.sql;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * HTTP 요청 하나에서 실행된 SQL 문 수 / row 수를 재고, 예산을 넘으면 경고 로그를 남긴다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STARTED_AT = QueryCountInterceptor.class.getName() + ".STARTED_AT";
+
+    private final QueryBudget queryBudget;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STARTED_AT, QueryCounter.snapshot());
+        return true;
+    }
+
+    // 스트리밍 응답은 다른 스레드에서 쿼리를 실행하므로 이 스레드의 카운터로는 잴 수 없다.
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.removeAttribute(STARTED_AT);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (!(startedAt instanceof QueryCount)) {
+            return;
+        }
+        request.removeAttribute(STARTED_AT);
+
+        QueryCount count = QueryCounter.snapshot().minus((QueryCount) startedAt);
+        if (count.exceeds(queryBudget)) {
+            log.warn("쿼리 예산 초과. {} {} statements={}, rows={}", request.getMethod(), request.getRequestURI(),
+                    count.getStatements(), count.getRows());
+        } else {
+            log.debug("{} {} statements={}, rows={}", request.getMethod(), request.getRequestURI(),
+                    count.getStatements(), count.getRows());
+        }
+    }
+}
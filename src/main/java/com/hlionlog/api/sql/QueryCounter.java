@@ -0,0 +1,28 @@
+package com.hlionlog.api.sql;
+
+/**
+ * 스레드별로 실행한 SQL 문 수와 읽은 row 수를 계속 더해간다. (CountingDataSource가 올린다)
+ *
+ * 값을 지우지 않으므로 구간을 잴 때는 시작 시점 snapshot()과의 차이를 본다.
+ * 요청 안에서 서비스 메서드를 재는 것처럼 구간이 겹쳐도 서로 영향을 주지 않는다.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+    private QueryCounter() {
+    }
+
+    public static QueryCount snapshot() {
+        long[] counts = COUNTS.get();
+        return new QueryCount(counts[0], counts[1]);
+    }
+
+    static void statementExecuted() {
+        COUNTS.get()[0]++;
+    }
+
+    static void rowFetched() {
+        COUNTS.get()[1]++;
+    }
+}
@@ -0,0 +1,228 @@
+package com.hlionlog.api.view;
+
+import com.hlionlog.api.cache.LocalCache;
+import com.hlionlog.api.repository.PostRepository;
+import com.hlionlog.api.response.PostHotResponse;
+import com.hlionlog.api.response.PostResponse;
+import com.hlionlog.api.response.PostSummaryResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 글 조회수
+ *
+ * 조회할 때마다 UPDATE 하면 인기 글 한 row에 쓰기 락이 몰리므로, 메모리에서 글마다 LongAdder로 세고
+ * flush-interval 마다 모인 만큼만 views = views + ? 로 한 번에 반영한다.
+ * (LongAdder는 스레드마다 다른 칸에 더하므로 같은 글을 동시에 조회해도 경합이 거의 없다)
+ *
+ * - 응답에는 아직 반영하지 않은 조회수를 더해서 보여준다.
+ * - 반영한 뒤에도 글 캐시는 비우지 않는다. 캐시에는 (DB 조회수 - 읽을 때까지 이 서버가 반영한 조회수)를 넣어두고,
+ *   응답할 때 지금까지 반영한 조회수와 아직 반영하지 않은 조회수를 더한다. (added)
+ * - 비정상 종료 시 마지막 flush 이후의 조회수는 잃는다. (정상 종료 시에는 반영하고 끝낸다)
+ * - 인기 글 순위는 flush 할 때 메모리에서 계산해 두고, 요청에는 계산된 목록을 그대로 내려준다.
+ */
+@Slf4j
+@Component
+public class PostViewCounter {
+
+    // 점수가 이보다 낮아진 글은 순위 후보에서 뺀다.
+    private static final double MIN_SCORE = 0.5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostRepository postRepository;
+    private final LocalCache<Long, PostResponse> postCache;
+    private final double decay;
+    private final int hotSize;
+
+    private final ConcurrentHashMap<Long, LongAdder> counts = new ConcurrentHashMap<>();
+
+    // DB에 반영하는 중인 조회수 -> 반영이 끝나 flushed로 옮길 때까지 응답에 더한다.
+    private volatile Map<Long, Long> flushing = Map.of();
+
+    // 이 서버가 DB에 반영한 조회수 누적, 글 캐시에 들어있는 글만 남긴다.
+    private final ConcurrentHashMap<Long, Long> flushed = new ConcurrentHashMap<>();
+
+    // DB에 반영하기 시작할 때와 끝날 때 1씩 올린다. (반영 중이면 홀수) lock 안에서만 바꾼다.
+    private volatile long sequence;
+    private final Object lock = new Object();
+
+    // 최근 조회 점수 (flush 할 때마다 decay를 곱해서 오래된 조회는 점점 작아진다), flush 에서만 읽고 쓴다.
+    private final Map<Long, Double> scores = new HashMap<>();
+    private volatile List<PostHotResponse> hot = List.of();
+
+    public PostViewCounter(JdbcTemplate jdbcTemplate,
+                           PostRepository postRepository,
+                           LocalCache<Long, PostResponse> postCache,
+                           @Value("${hlionlog.views.flush-interval-millis:5000}") long flushIntervalMillis,
+                           @Value("${hlionlog.views.hot.half-life:10m}") Duration halfLife,
+                           @Value("${hlionlog.views.hot.size:100}") int hotSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postRepository = postRepository;
+        this.postCache = postCache;
+        this.decay = Math.pow(0.5, (double) flushIntervalMillis / halfLife.toMillis());
+        this.hotSize = hotSize;
+    }
+
+    public void increment(Long id) {
+        LongAdder count = counts.get(id);
+        if (count == null) {
+            count = counts.computeIfAbsent(id, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    // 아직 DB에 반영되지 않은 조회수
+    public long pending(Long id) {
+        LongAdder count = counts.get(id);
+        return (count == null ? 0 : count.sum()) + flushing.getOrDefault(id, 0L);
+    }
+
+    // 이 서버가 지금까지 DB에 반영한 조회수
+    public long flushed(Long id) {
+        return flushed.getOrDefault(id, 0L);
+    }
+
+    // 캐시에 넣은 기준값(DB 조회수 - 읽을 때의 flushed)에 더할 값
+    // pending을 먼저 읽어서, flush가 끝나는 순간에도 조회수가 줄어 보이지 않게 한다. (잠깐 중복으로 더해질 수는 있다)
+    public long added(Long id) {
+        long pending = pending(id);
+        return flushed(id) + pending;
+    }
+
+    // DB를 읽기 전에 구해두고, 읽은 뒤 ifNotFlushedSince로 넘긴다.
+    public long sequence() {
+        return sequence;
+    }
+
+    // sequence 이후로 DB 반영이 없었을 때만 action을 실행한다. (읽은 조회수와 flushed가 같은 시점이라 캐시에 넣어도 된다)
+    public void ifNotFlushedSince(long sequence, Runnable action) {
+        synchronized (lock) {
+            if (this.sequence == sequence && sequence % 2 == 0) {
+                action.run();
+            }
+        }
+    }
+
+    public List<PostHotResponse> getHot(int size) {
+        List<PostHotResponse> ranking = hot;
+        return ranking.subList(0, Math.max(0, Math.min(size, ranking.size())));
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${hlionlog.views.flush-interval-millis:5000}")
+    public synchronized void flush() {
+        // id 순으로 반영 -> 여러 서버가 동시에 반영해도 같은 순서로 row 락을 잡는다.
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (Map.Entry<Long, LongAdder> entry : counts.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                deltas.put(entry.getKey(), delta);
+            } else {
+                // 한 주기 동안 조회가 없던 글은 뺀다. (지우는 순간 들어온 조회는 드물게 한 건 빠질 수 있다)
+                counts.remove(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (!deltas.isEmpty()) {
+            synchronized (lock) {
+                sequence++;
+                flushing = deltas;
+            }
+            boolean written = write(deltas);
+            synchronized (lock) {
+                // flushed에 먼저 더해야 한다. flushing을 먼저 비우면 그 사이 조회수가 줄어 보인다.
+                if (written) {
+                    deltas.forEach((id, delta) -> flushed.merge(id, delta, Long::sum));
+                }
+                flushing = Map.of();
+                // 캐시에 없는 글은 다음에 읽을 때 그 시점의 flushed를 기준으로 하므로 지워도 된다.
+                flushed.keySet().removeIf(id -> !postCache.contains(id));
+                sequence++;
+            }
+        }
+        rank(deltas);
+    }
+
+    private boolean write(Map<Long, Long> deltas) {
+        List<Object[]> updates = deltas.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+        try {
+            jdbcTemplate.batchUpdate("update post set views = views + ? where id = ?", updates);
+            return true;
+        } catch (DataAccessException e) {
+            // 다음 flush 때 다시 반영한다.
+            log.warn("조회수 반영 실패, 다음에 다시 반영합니다. posts={}", deltas.size(), e);
+            deltas.forEach((id, delta) -> counts.computeIfAbsent(id, key -> new LongAdder()).add(delta));
+            return false;
+        }
+    }
+
+    private void rank(Map<Long, Long> deltas) {
+        Iterator<Map.Entry<Long, Double>> iterator = scores.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Double> entry = iterator.next();
+            entry.setValue(entry.getValue() * decay);
+            if (entry.getValue() < MIN_SCORE && !deltas.containsKey(entry.getKey())) {
+                iterator.remove();
+            }
+        }
+        deltas.forEach((id, delta) -> scores.merge(id, (double) delta, Double::sum));
+
+        if (scores.isEmpty()) {
+            hot = List.of();
+            return;
+        }
+
+        // 전체를 정렬하지 않고 hotSize 개만 남기는 heap으로 고른다.
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.comparingByValue();
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(byScore);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > hotSize) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> top = new ArrayList<>(heap);
+        top.sort(byScore.reversed());
+
+        // 제목은 요청마다가 아니라 flush 마다 IN 쿼리 한 번으로 읽는다. (삭제된 글은 순위에서 뺀다)
+        Map<Long, PostSummaryResponse> summaries = postRepository.getSummaries(
+                        top.stream().map(Map.Entry::getKey).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(PostSummaryResponse::getId, Function.identity()));
+
+        List<PostHotResponse> ranking = new ArrayList<>(top.size());
+        for (Map.Entry<Long, Double> entry : top) {
+            PostSummaryResponse summary = summaries.get(entry.getKey());
+            if (summary == null) {
+                scores.remove(entry.getKey());
+                continue;
+            }
+            ranking.add(PostHotResponse.builder()
+                    .id(summary.getId())
+                    .title(summary.getTitle())
+                    .recentViews(Math.round(entry.getValue()))
+                    .build());
+        }
+        hot = List.copyOf(ranking);
+    }
+}
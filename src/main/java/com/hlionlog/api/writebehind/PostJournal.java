@@ -0,0 +1,172 @@
+package com.hlionlog.api.writebehind;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hlionlog.api.request.PostCreate;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * DB에 쓰기 전에 글 저장 요청을 먼저 남겨두는 로컬 파일 (NDJSON, 한 줄 = 순번 + 글)
+ *
+ * sync까지 끝난 요청만 클라이언트에 응답하므로, 서버가 죽어도 응답한 글은 다음 시작 시 다시 저장할 수 있다.
+ * 여러 요청이 동시에 sync를 부르면 fsync 한 번으로 그때까지 쓴 줄을 모두 디스크에 내린다.
+ */
+@Slf4j
+public class PostJournal implements Closeable {
+
+    private final Path path;
+    private final Path failedPath;
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+    private final Object syncLock = new Object();
+
+    private long lastSeq;
+    private volatile long appendedSeq;
+    private volatile long syncedSeq;
+
+    public PostJournal(Path path, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        this.failedPath = path.resolveSibling(path.getFileName() + ".failed");
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, CREATE, WRITE, APPEND);
+    }
+
+    /**
+     * 저장이 끝난 순번(checkpoint) 이후의 글을 읽는다. 새로 남기는 글은 남아있던 글 다음 순번부터 받는다.
+     * 쓰다가 죽은 줄은 fsync 전이라 응답하지 않은 요청이므로 버린다.
+     */
+    public synchronized List<Entry> readAfter(long checkpoint) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        lastSeq = Math.max(lastSeq, checkpoint);
+
+        try (BufferedReader reader = Files.newBufferedReader(path, UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Entry entry;
+                try {
+                    entry = objectMapper.readValue(line, Entry.class);
+                } catch (JsonProcessingException e) {
+                    log.warn("journal에서 읽을 수 없는 줄을 건너뜁니다. path={}", path);
+                    continue;
+                }
+                lastSeq = Math.max(lastSeq, entry.seq);
+                if (entry.seq > checkpoint) {
+                    entries.add(entry);
+                }
+            }
+        }
+        appendedSeq = lastSeq;
+        syncedSeq = lastSeq;
+        return entries;
+    }
+
+    public synchronized long append(PostCreate postCreate) throws IOException {
+        long seq = lastSeq + 1;
+        byte[] line = objectMapper.writeValueAsBytes(new Entry(seq, postCreate.getTitle(), postCreate.getContent()));
+
+        ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        lastSeq = seq;
+        appendedSeq = seq;
+        return seq;
+    }
+
+    // seq까지 디스크에 기록됐음을 보장한다. 기다리는 동안 다른 요청이 fsync 했으면 바로 끝난다.
+    public void sync(long seq) throws IOException {
+        if (syncedSeq >= seq) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedSeq >= seq) {
+                return;
+            }
+            long upTo = appendedSeq;
+            channel.force(false);
+            syncedSeq = upTo;
+        }
+    }
+
+    /**
+     * DB에 저장할 수 없는 글은 journal 옆의 .failed 파일로 옮겨 둔다. (같은 형식, 원래 순번 그대로)
+     * 옮긴 뒤 checkpoint를 넘기기 전에 실패하면 다시 시도하므로 같은 순번이 두 번 남을 수 있다.
+     */
+    public void moveToFailed(long seq, PostCreate postCreate) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(new Entry(seq, postCreate.getTitle(), postCreate.getContent()));
+        try (FileChannel failed = FileChannel.open(failedPath, CREATE, WRITE, APPEND)) {
+            ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+            while (buffer.hasRemaining()) {
+                failed.write(buffer);
+            }
+            failed.force(false);
+        }
+    }
+
+    public Path getFailedPath() {
+        return failedPath;
+    }
+
+    // checkpoint까지 모두 DB에 저장됐고 그 뒤로 남긴 글이 없으면 파일을 비운다.
+    public synchronized boolean truncateIfCommitted(long checkpoint) throws IOException {
+        if (checkpoint < lastSeq) {
+            return false;
+        }
+        channel.truncate(0);
+        channel.force(false);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Entry {
+
+        private long seq;
+
+        private String title;
+
+        private String content;
+
+        Entry(long seq, String title, String content) {
+            this.seq = seq;
+            this.title = title;
+            this.content = content;
+        }
+
+        public PostCreate toPostCreate() {
+            return PostCreate.builder()
+                    .title(title)
+                    .content(content)
+                    .build();
+        }
+    }
+}
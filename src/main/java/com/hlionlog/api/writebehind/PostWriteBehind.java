@@ -0,0 +1,298 @@
+package com.hlionlog.api.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.domain.PostJournalCheckpoint;
+import com.hlionlog.api.exception.PostQueueFull;
+import com.hlionlog.api.repository.PostJournalCheckpointRepository;
+import com.hlionlog.api.request.PostCreate;
+import com.hlionlog.api.service.PostBatchWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 글 작성 write-behind (hlionlog.write-behind.enabled=true 일 때만)
+ *
+ * 요청 스레드는 글을 journal에 남기고(fsync) 대기열에 넣은 뒤 바로 응답한다.
+ * 저장 스레드 하나가 대기열에서 batch-size 만큼씩 꺼내 한 트랜잭션으로 저장한다.
+ *
+ * - 대기열이 가득 차면 journal에 남기지 않고 503으로 응답한다.
+ * - 묶음 저장이 실패하면 한 건씩 다시 저장하고, DB가 거부한 글(DataIntegrityViolationException)은 journal 옆 .failed 파일로 옮긴 뒤 넘어간다.
+ *   연결/락 대기 시간 초과 같은 그 밖의 실패는 저장될 때까지 같은 글부터 다시 시도한다.
+ * - 저장한 마지막 순번은 글과 같은 트랜잭션에서 PostJournalCheckpoint에 남긴다.
+ *   시작할 때 그 이후 순번을 journal에서 다시 저장하므로, 응답한 글은 서버가 죽어도 한 번만 저장된다.
+ * - 종료할 때는 새 요청을 받지 않고 대기열을 비운 뒤 끝낸다. (shutdown-timeout 안에 못 비우면 다음 시작 시 저장)
+ */
+@Slf4j
+@Component
+public class PostWriteBehind {
+
+    private static final String CHECKPOINT_ID = "post";
+    private static final long POLL_MILLIS = 100;
+    private static final long RETRY_MILLIS = 1000;
+
+    private final PostBatchWriter postBatchWriter;
+    private final PostJournalCheckpointRepository postJournalCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Path journalPath;
+    private final Duration shutdownTimeout;
+
+    private final Semaphore capacity;
+    private final BlockingQueue<Pending> queue;
+    private final Object appendLock = new Object();
+
+    private PostJournal journal;
+    private ExecutorService drainer;
+    private volatile boolean accepting;
+    private volatile boolean running;
+
+    public PostWriteBehind(PostBatchWriter postBatchWriter,
+                           PostJournalCheckpointRepository postJournalCheckpointRepository,
+                           TransactionTemplate transactionTemplate,
+                           ObjectMapper objectMapper,
+                           @Value("${hlionlog.write-behind.enabled:false}") boolean enabled,
+                           @Value("${hlionlog.write-behind.capacity:10000}") int capacity,
+                           @Value("${hlionlog.write-behind.batch-size:500}") int batchSize,
+                           @Value("${hlionlog.write-behind.journal:data/post-journal.ndjson}") Path journalPath,
+                           @Value("${hlionlog.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.postBatchWriter = postBatchWriter;
+        this.postJournalCheckpointRepository = postJournalCheckpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.journalPath = journalPath;
+        this.shutdownTimeout = shutdownTimeout;
+        this.capacity = new Semaphore(capacity);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    // journal에서 못 저장한 글을 먼저 저장한 뒤 요청을 받는다.
+    @PostConstruct
+    public void start() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        journal = new PostJournal(journalPath, objectMapper);
+        long checkpoint = postJournalCheckpointRepository.findById(CHECKPOINT_ID)
+                .map(PostJournalCheckpoint::getCommittedSeq)
+                .orElse(0L);
+
+        List<PostJournal.Entry> entries = journal.readAfter(checkpoint);
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Pending> batch = entries.subList(from, Math.min(from + batchSize, entries.size())).stream()
+                    .map(entry -> new Pending(entry.getSeq(), entry.toPostCreate()))
+                    .collect(Collectors.toList());
+            save(batch);
+            checkpoint = batch.get(batch.size() - 1).seq;
+        }
+        journal.truncateIfCommitted(checkpoint);
+        if (!entries.isEmpty()) {
+            log.info("journal에 남아있던 글을 저장했습니다. count={}, path={}", entries.size(), journalPath);
+        }
+
+        running = true;
+        accepting = true;
+        drainer = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "post-write-behind"));
+        drainer.execute(this::drain);
+    }
+
+    /**
+     * journal에 기록된 뒤에 돌아온다. 기록 이후의 저장 실패는 저장 스레드가 다시 시도한다.
+     */
+    public void submit(PostCreate postCreate) {
+        if (!capacity.tryAcquire()) {
+            throw new PostQueueFull();
+        }
+
+        long seq;
+        try {
+            seq = append(postCreate);
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+
+        try {
+            journal.sync(seq);
+        } catch (IOException e) {
+            // 이미 대기열에 들어갔으므로 글은 저장되지만, 디스크 기록을 보장할 수 없으므로 실패로 응답한다.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 대기열 순서와 journal 순번이 같아야 checkpoint 이전 글이 모두 저장된 것이 보장된다.
+    private long append(PostCreate postCreate) {
+        synchronized (appendLock) {
+            if (!accepting) {
+                throw new PostQueueFull();
+            }
+            try {
+                long seq = journal.append(postCreate);
+                queue.add(new Pending(seq, postCreate));
+                return seq;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (appendLock) {
+            accepting = false;
+        }
+        running = false;
+        drainer.shutdown();
+        if (!drainer.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            drainer.shutdownNow();
+            log.warn("종료 전에 대기열을 모두 저장하지 못했습니다. 남은 {}건은 다음 시작 시 journal에서 저장합니다.", queue.size());
+        }
+        journal.close();
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                save(batch);
+                capacity.release(batch.size());
+                if (queue.isEmpty()) {
+                    truncateJournal(batch.get(batch.size() - 1).seq);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 비우지 못해도 저장된 순번은 시작할 때 건너뛰므로 다음 기회에 비운다.
+    private void truncateJournal(long checkpoint) {
+        try {
+            journal.truncateIfCommitted(checkpoint);
+        } catch (IOException e) {
+            log.warn("journal을 비우지 못했습니다. path={}", journalPath, e);
+        }
+    }
+
+    // 묶음 저장이 실패하면 어떤 글이 문제인지 찾기 위해 한 건씩 다시 저장한다. (PostBatchService와 같은 방식)
+    private void save(List<Pending> batch) throws InterruptedException {
+        try {
+            commit(batch);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("write-behind 묶음 저장 실패, 한 건씩 다시 저장합니다. count={}", batch.size(), e);
+        }
+
+        for (Pending pending : batch) {
+            saveOne(pending);
+        }
+    }
+
+    // 이미 응답한 글이므로 그냥 버리지 않는다.
+    // DB가 글 자체를 거부한 경우(제약 조건 위반, 너무 긴 값 등)만 .failed 파일로 옮기고 넘어간다.
+    // 그 밖의 실패(연결 풀/락 대기 시간 초과, 연결 끊김 등)와 .failed로 옮기지 못한 경우는 잠시 뒤 같은 글부터 다시 시도한다.
+    // (.failed 파일은 다시 저장하지 않으므로, 다시 시도하면 저장될 글을 옮기면 안 된다)
+    private void saveOne(Pending pending) throws InterruptedException {
+        while (true) {
+            try {
+                commit(List.of(pending));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (skip(pending, e)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("write-behind 저장 실패, {}ms 후 다시 시도합니다. seq={}", RETRY_MILLIS, pending.seq, e);
+            }
+            Thread.sleep(RETRY_MILLIS);
+        }
+    }
+
+    private boolean skip(Pending pending, DataIntegrityViolationException cause) {
+        try {
+            journal.moveToFailed(pending.seq, pending.postCreate);
+            transactionTemplate.executeWithoutResult(status -> advance(pending.seq, 0, 1));
+        } catch (IOException | RuntimeException e) {
+            log.error("저장할 수 없는 글을 .failed로 옮기지 못했습니다. {}ms 후 다시 시도합니다. seq={}", RETRY_MILLIS, pending.seq, e);
+            return false;
+        }
+        log.error("저장할 수 없는 글을 건너뜁니다. seq={}, failed={}", pending.seq, journal.getFailedPath(), cause);
+        return true;
+    }
+
+    // 글 저장과 checkpoint 갱신을 한 트랜잭션으로 묶는다.
+    private void commit(List<Pending> batch) {
+        long lastSeq = batch.get(batch.size() - 1).seq;
+        List<Post> posts = batch.stream()
+                .map(pending -> pending.postCreate.toEntity())
+                .collect(Collectors.toList());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            postBatchWriter.saveAll(posts);
+            advance(lastSeq, posts.size(), 0);
+        });
+    }
+
+    private void advance(long seq, long saved, long failed) {
+        PostJournalCheckpoint checkpoint = postJournalCheckpointRepository.findById(CHECKPOINT_ID)
+                .orElseGet(() -> new PostJournalCheckpoint(CHECKPOINT_ID));
+        checkpoint.commit(seq, saved, failed);
+        postJournalCheckpointRepository.save(checkpoint);
+    }
+
+    private static final class Pending {
+
+        private final long seq;
+        private final PostCreate postCreate;
+
+        Pending(long seq, PostCreate postCreate) {
+            this.seq = seq;
+            this.postCreate = postCreate;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.hlionlog.api.config;
+
+import com.hlionlog.api.repository.PostRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * replica는 같은 DB를 SELECT 권한만 있는 계정(reader)으로 연결한다.
+ * 쓰기가 replica 연결로 나가면 권한 오류로 실패하므로, 요청 안에서 읽은 뒤 쓰는 흐름이 primary로 가는지 확인할 수 있다.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hlion-routing;INIT=CREATE USER IF NOT EXISTS reader PASSWORD 'reader'\\\\;GRANT SELECT ON SCHEMA PUBLIC TO reader",
+        "hlionlog.datasource.routing.enabled=true",
+        "hlionlog.datasource.routing.stickiness=0s",
+        "hlionlog.datasource.routing.replicas[0].jdbc-url=jdbc:h2:mem:hlion-routing",
+        "hlionlog.datasource.routing.replicas[0].username=reader",
+        "hlionlog.datasource.routing.replicas[0].password=reader"
+})
+class DataSourceRoutingConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Test
+    @DisplayName("한 요청에서 readOnly 트랜잭션으로 읽은 뒤 쓰면, 쓰기는 primary 연결에서 실행한다.")
+    void test1() throws Exception {
+        // given
+        String body = "{\"title\":\"title 1\",\"content\":\"content 1\"}\n"
+                + "{\"title\":\"title 2\",\"content\":\"content 2\"}\n";
+
+        // expected (가져오기는 importId 조회(readOnly) 후 chunk를 저장한다)
+        mockMvc.perform(post("/posts/import")
+                        .contentType(APPLICATION_NDJSON)
+                        .content(body)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andDo(print());
+
+        assertEquals(2L, postRepository.count());
+    }
+}
@@ -1,30 +1,42 @@
 package com.hlionlog.api.controller;
 
+import com.hlionlog.api.cache.PostListCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hlionlog.api.domain.Post;
 import com.hlionlog.api.repository.PostRepository;
 import com.hlionlog.api.request.PostCreate;
 import com.hlionlog.api.request.PostEdit;
+import com.hlionlog.api.search.PostSearchIndex;
+import com.hlionlog.api.view.PostViewCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @AutoConfigureMockMvc
+@AutoConfigureMetrics
 @SpringBootTest
 class PostControllerTest {
 
@@ -37,9 +49,26 @@ class PostControllerTest {
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private PostListCache postListCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private PostViewCounter postViewCounter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @BeforeEach
     void clear() {
         postRepository.deleteAll();
+        postListCache.invalidateAll();
+        postSearchIndex.clear();
     }
 
     @Test
@@ -111,9 +140,45 @@ class PostControllerTest {
                 .andDo(print());
 
         assertEquals(1L, postRepository.count());
-        List<Post> all = postRepository.findAll();
-        assertEquals(request.getTitle(), all.get(0).getTitle());
-        assertEquals(request.getContent(), all.get(0).getContent());
+        // 본문은 지연 로딩이므로 트랜잭션 안에서 읽는다.
+        transactionTemplate.executeWithoutResult(status -> {
+            Post post = postRepository.findAll().get(0);
+            assertEquals(request.getTitle(), post.getTitle());
+            assertEquals(request.getContent(), post.getContent());
+        });
+    }
+
+    @Test
+    @DisplayName("/posts/batch 요청시 검증에 통과한 글만 저장하고 실패한 글은 index와 함께 알려준다.")
+    void test3_1() throws Exception {
+        // given
+        List<PostCreate> request = List.of(
+                PostCreate.builder().title("title 1").content("content 1").build(),
+                PostCreate.builder().title("나는 바보 입니다.").content("content 2").build(),
+                PostCreate.builder().title("title 3").content("content 3").build(),
+                PostCreate.builder().title("title 4").build()
+        );
+
+        String json = objectMapper.writeValueAsString(request);
+
+        // expected
+        mockMvc.perform(post("/posts/batch")
+                        .contentType(APPLICATION_JSON)
+                        .content(json)
+                )
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.total").value(4),
+                        jsonPath("$.saved").value(2),
+                        jsonPath("$.errors.length()", is(2)),
+                        jsonPath("$.errors[0].index").value(1),
+                        jsonPath("$.errors[0].validation.title").value("제목에 바보는 포함될 수 없습니다."),
+                        jsonPath("$.errors[1].index").value(3),
+                        jsonPath("$.errors[1].validation.content").value("내용을 입력해주세요.")
+                )
+                .andDo(print());
+
+        assertEquals(2L, postRepository.count());
     }
 
     @Test
@@ -137,6 +202,153 @@ class PostControllerTest {
         ).andDo(print());
     }
 
+    @Test
+    @DisplayName("글 1개 조회시 ETag가 같으면 304, 수정된 뒤에는 새 ETag와 함께 200을 응답한다.")
+    void test4_2() throws Exception {
+        // given
+        Post post = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(post);
+
+        String eTag = mockMvc.perform(get("/posts/{postId}", post.getId()))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"" + post.getId() + "-0\""),
+                        header().exists(HttpHeaders.LAST_MODIFIED)
+                )
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // expected
+        mockMvc.perform(get("/posts/{postId}", post.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpectAll(
+                        status().isNotModified(),
+                        content().string("")
+                )
+                .andDo(print());
+
+        mockMvc.perform(patch("/posts/{postId}", post.getId())
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PostEdit.builder()
+                                .title("edited")
+                                .content("content")
+                                .build())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/posts/{postId}", post.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"" + post.getId() + "-1\""),
+                        jsonPath("$.title").value("edited")
+                )
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("304 응답은 조회수를 세지 않고, 조회수는 본문이 아닌 X-View-Count 헤더로 내려간다.")
+    void test4_2_1() throws Exception {
+        // given
+        Post post = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(post);
+
+        String eTag = mockMvc.perform(get("/posts/{postId}", post.getId()))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string("X-View-Count", "0"),
+                        jsonPath("$.views").doesNotExist()
+                )
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // expected
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/posts/{postId}", post.getId())
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpectAll(
+                            status().isNotModified(),
+                            header().string(HttpHeaders.ETAG, eTag),
+                            header().string("X-View-Count", "1")
+                    );
+        }
+
+        mockMvc.perform(get("/posts/{postId}", post.getId()))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, eTag),
+                        header().string("X-View-Count", "1")
+                )
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("If-Match가 현재 ETag와 같으면 수정하고, 먼저 수정된 글이면 412를 응답한다.")
+    void test4_3() throws Exception {
+        // given
+        Post post = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(post);
+
+        String eTag = "\"" + post.getId() + "-0\"";
+        String json = objectMapper.writeValueAsString(PostEdit.builder()
+                .title("edited")
+                .content("content")
+                .build());
+
+        // expected
+        mockMvc.perform(patch("/posts/{postId}", post.getId())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(APPLICATION_JSON)
+                        .content(json))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"" + post.getId() + "-1\"")
+                )
+                .andDo(print());
+
+        mockMvc.perform(patch("/posts/{postId}", post.getId())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(APPLICATION_JSON)
+                        .content(json))
+                .andExpectAll(
+                        status().isPreconditionFailed(),
+                        jsonPath("$.code").value("412")
+                )
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("id 목록으로 글 여러개 조회, 없는 글은 missing으로 알려준다.")
+    void test4_1() throws Exception {
+        // given
+        Post first = postRepository.save(Post.builder()
+                .title("first")
+                .content("content 1")
+                .build());
+        Post second = postRepository.save(Post.builder()
+                .title("second")
+                .content("content 2")
+                .build());
+        long missingId = second.getId() + 100L;
+
+        // expected
+        mockMvc.perform(get("/posts?ids={ids}", second.getId() + "," + missingId + "," + first.getId())
+                .contentType(APPLICATION_JSON)
+        ).andExpectAll(
+                status().isOk(),
+                jsonPath("$.posts.length()", is(2)),
+                jsonPath("$.posts[0].title").value("second"),
+                jsonPath("$.posts[1].title").value("first"),
+                jsonPath("$.missing[0]").value(missingId)
+        ).andDo(print());
+    }
+
     @Test
     @DisplayName("글  여러개 조회")
     void test5() throws Exception {
@@ -156,7 +368,7 @@ class PostControllerTest {
                 status().isOk(),
                 jsonPath("$.length()", is(10)),
                 jsonPath("$[0].title").value("title 19"),
-                jsonPath("$[0].content").value("content 19")
+                jsonPath("$[0].excerpt").value("content 19")
         ).andDo(print());
     }
 
@@ -179,10 +391,212 @@ class PostControllerTest {
                 status().isOk(),
                 jsonPath("$.length()", is(10)),
                 jsonPath("$[0].title").value("title 19"),
-                jsonPath("$[0].content").value("content 19")
+                jsonPath("$[0].excerpt").value("content 19")
         ).andDo(print());
     }
 
+    @Test
+    @DisplayName("글 여러개 조회시 다음 페이지 cursor를 내려준다.")
+    void test6_1() throws Exception {
+        // given
+        List<Post> requestPosts = IntStream.range(0, 20)
+                .mapToObj(i -> Post.builder()
+                        .title("title " + i)
+                        .content("content " + i)
+                        .build()
+                ).collect(Collectors.toList());
+        postRepository.saveAll(requestPosts);
+        Long cursor = requestPosts.get(10).getId();
+
+        // expected
+        mockMvc.perform(get("/posts/all?size=10&cursor={cursor}", cursor)
+                .contentType(APPLICATION_JSON)
+        ).andExpectAll(
+                status().isOk(),
+                header().string("X-Next-Cursor", String.valueOf(requestPosts.get(0).getId())),
+                jsonPath("$.length()", is(10)),
+                jsonPath("$[0].title").value("title 9")
+        ).andDo(print());
+    }
+
+    @Test
+    @DisplayName("전체 글을 NDJSON으로 내보낸다.")
+    void test6_2() throws Exception {
+        // given
+        List<Post> requestPosts = IntStream.range(0, 3)
+                .mapToObj(i -> Post.builder()
+                        .title("title " + i)
+                        .content("content " + i)
+                        .build()
+                ).collect(Collectors.toList());
+        postRepository.saveAll(requestPosts);
+
+        MvcResult result = mockMvc.perform(get("/posts/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+
+        // expected
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(APPLICATION_NDJSON)
+                )
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = body.lines().collect(Collectors.toList());
+        assertEquals(3, lines.size());
+        assertEquals("title 0", objectMapper.readTree(lines.get(0)).get("title").asText());
+        assertEquals("content 2", objectMapper.readTree(lines.get(2)).get("content").asText());
+    }
+
+    @Test
+    @DisplayName("NDJSON으로 글을 가져오고, 같은 importId로 다시 보내면 이미 저장된 줄은 건너뛴다.")
+    void test6_3() throws Exception {
+        // given
+        String body = "{\"title\":\"title 1\",\"content\":\"content 1\"}\n"
+                + "{\"title\":\"나는 바보 입니다.\",\"content\":\"content 2\"}\n"
+                + "{\"title\":\n"
+                + "{\"title\":\"title 4\",\"content\":\"content 4\"}\n";
+
+        // expected
+        mockMvc.perform(post("/posts/import?importId=test-import")
+                        .contentType(APPLICATION_NDJSON)
+                        .content(body)
+                )
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.importId").value("test-import"),
+                        jsonPath("$.committedLines").value(4),
+                        jsonPath("$.imported").value(2),
+                        jsonPath("$.rejected").value(2),
+                        jsonPath("$.errors[0].line").value(2),
+                        jsonPath("$.errors[1].line").value(3)
+                )
+                .andDo(print());
+
+        mockMvc.perform(post("/posts/import?importId=test-import")
+                        .contentType(APPLICATION_NDJSON)
+                        .content(body + "{\"title\":\"title 5\",\"content\":\"content 5\"}\n")
+                )
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.committedLines").value(5),
+                        jsonPath("$.imported").value(1),
+                        jsonPath("$.skipped").value(4)
+                )
+                .andDo(print());
+
+        assertEquals(3L, postRepository.count());
+    }
+
+    @Test
+    @DisplayName("글 목록이 바뀌지 않았으면 304, 글이 추가되면 200을 응답한다.")
+    void test6_4() throws Exception {
+        // given
+        postRepository.saveAll(IntStream.range(0, 5)
+                .mapToObj(i -> Post.builder()
+                        .title("title " + i)
+                        .content("content " + i)
+                        .build())
+                .collect(Collectors.toList()));
+
+        String eTag = mockMvc.perform(get("/posts/all?page=1&size=10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // expected
+        mockMvc.perform(get("/posts/all?page=1&size=10")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpectAll(
+                        status().isNotModified(),
+                        content().string("")
+                )
+                .andDo(print());
+
+        mockMvc.perform(post("/posts")
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PostCreate.builder()
+                                .title("new")
+                                .content("content")
+                                .build())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/posts/all?page=1&size=10")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.length()", is(6))
+                )
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("/posts/search 요청시 제목/본문에 검색어가 들어간 글을 관련도 순으로 응답한다.")
+    void test6_5() throws Exception {
+        // given
+        List<PostCreate> requests = List.of(
+                PostCreate.builder().title("스프링 캐시").content("로컬 캐시를 적용한 게시글입니다.").build(),
+                PostCreate.builder().title("JPA 정리").content("지연 로딩과 캐시에 대한 게시글").build(),
+                PostCreate.builder().title("여행 기록").content("제주도 여행").build());
+        for (PostCreate request : requests) {
+            mockMvc.perform(post("/posts")
+                            .contentType(APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+        }
+
+        // expected
+        mockMvc.perform(get("/posts/search?q=캐시&page=1&size=10"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.total").value(2),
+                        jsonPath("$.posts.length()", is(2)),
+                        jsonPath("$.posts[0].title").value("스프링 캐시"),
+                        jsonPath("$.posts[1].title").value("JPA 정리")
+                )
+                .andDo(print());
+
+        Long travelId = postRepository.findAll().stream()
+                .filter(post -> post.getTitle().equals("여행 기록"))
+                .findFirst().orElseThrow().getId();
+        mockMvc.perform(delete("/posts/{postId}", travelId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/posts/search?q=여행"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.total").value(0),
+                        jsonPath("$.posts.length()", is(0))
+                )
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("/posts/search 요청시 size가 최대값보다 크면 최대값 단위로 페이지를 나눈다.")
+    void test6_6() throws Exception {
+        // given
+        List<Post> posts = IntStream.range(0, 150)
+                .mapToObj(i -> Post.builder()
+                        .title("검색 " + i)
+                        .content("content")
+                        .build())
+                .collect(Collectors.toList());
+        postRepository.saveAll(posts);
+        posts.forEach(post -> postSearchIndex.index(post.getId(), post.getTitle(), post.getContent()));
+
+        // expected
+        mockMvc.perform(get("/posts/search?q=검색&page=2&size=1000"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.total").value(150),
+                        jsonPath("$.posts.length()", is(50))
+                )
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("글 제목 수정")
     void test7() throws Exception {
@@ -262,6 +676,42 @@ class PostControllerTest {
         ).andDo(print());
     }
 
+    @Test
+    @DisplayName("/posts/hot 요청시 최근 조회가 많은 글 순으로 응답한다.")
+    void test10_1() throws Exception {
+        // given
+        Post hot = Post.builder()
+                .title("hot")
+                .content("content")
+                .build();
+        Post cold = Post.builder()
+                .title("cold")
+                .content("content")
+                .build();
+        postRepository.saveAll(List.of(hot, cold));
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/posts/{postId}", hot.getId()))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/posts/{postId}", cold.getId()))
+                .andExpect(status().isOk());
+        postViewCounter.flush();
+
+        // expected
+        mockMvc.perform(get("/posts/{postId}", hot.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-View-Count", "3"))
+                .andExpect(jsonPath("$.views").doesNotExist());
+        mockMvc.perform(get("/posts/hot?size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].id").value(hot.getId()))
+                .andExpect(jsonPath("$[0].title").value("hot"))
+                .andExpect(jsonPath("$[1].id").value(cold.getId()))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("존재하지 않는 게시글 삭제")
     void test11() throws Exception {
@@ -280,6 +730,30 @@ class PostControllerTest {
         ).andDo(print());
     }
 
+    @Test
+    @DisplayName("예외 응답은 종류별로 집계되고 /actuator/prometheus로 노출된다.")
+    void test11_1() throws Exception {
+        // given
+        double before = meterRegistry.counter("hlionlog.exceptions", "exception", "PostNotFound", "status", "404").count();
+
+        // when
+        mockMvc.perform(get("/posts/{postId}", 1L))
+                .andExpect(status().isNotFound());
+
+        // then
+        assertEquals(before + 1,
+                meterRegistry.counter("hlionlog.exceptions", "exception", "PostNotFound", "status", "404").count());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().string(containsString("hlionlog_exceptions_total")),
+                        content().string(containsString("http_server_requests_seconds_bucket")),
+                        content().string(containsString("hibernate_"))
+                )
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("게시글 작성시 제목에 '바보'는 포함될 수 없다.")
     void test12() throws Exception {
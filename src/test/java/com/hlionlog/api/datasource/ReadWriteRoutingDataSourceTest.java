@@ -0,0 +1,156 @@
+package com.hlionlog.api.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private static final Duration STICKINESS = Duration.ofSeconds(2);
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    @DisplayName("readOnly 트랜잭션은 replica, 나머지는 primary에서 실행한다")
+    void test1() {
+        // given
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        Routing routing = routing(primary, List.of(replica));
+
+        // expected
+        assertEquals("primary", routing.write.execute(status -> routing.node()));
+        now.addAndGet(STICKINESS.toMillis() + 1);
+        assertEquals("replica", routing.read.execute(status -> routing.node()));
+    }
+
+    @Test
+    @DisplayName("쓰기 직후에는 readOnly 트랜잭션도 primary에서 읽는다")
+    void test2() {
+        // given
+        Routing routing = routing(h2("primary"), List.of(h2("replica")));
+        now.addAndGet(STICKINESS.toMillis() + 1);
+
+        // when
+        routing.write.execute(status -> routing.node());
+
+        // then
+        now.addAndGet(STICKINESS.toMillis() - 1);
+        assertEquals("primary", routing.read.execute(status -> routing.node()));
+        now.addAndGet(2);
+        assertEquals("replica", routing.read.execute(status -> routing.node()));
+    }
+
+    @Test
+    @DisplayName("replica가 여러 개면 돌아가면서 읽는다")
+    void test3() {
+        // given
+        Routing routing = routing(h2("primary"), List.of(h2("replica-0"), h2("replica-1")));
+        now.addAndGet(STICKINESS.toMillis() + 1);
+
+        // expected
+        String first = routing.read.execute(status -> routing.node());
+        String second = routing.read.execute(status -> routing.node());
+        String third = routing.read.execute(status -> routing.node());
+        assertNotEquals(first, second);
+        assertEquals(first, third);
+    }
+
+    @Test
+    @DisplayName("연결에 실패한 replica는 retryAfter 동안 제외하고, 남은 replica가 없으면 primary에서 읽는다")
+    void test4() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        DataSource down = new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                attempts.incrementAndGet();
+                throw new SQLException("replica down");
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        };
+        Routing routing = routing(h2("primary"), List.of(down));
+        now.addAndGet(STICKINESS.toMillis() + 1);
+
+        // expected
+        assertEquals("primary", routing.read.execute(status -> routing.node()));
+        assertEquals("primary", routing.read.execute(status -> routing.node()));
+        assertEquals(1, attempts.get());
+
+        now.addAndGet(RETRY_AFTER.toMillis());
+        assertEquals("primary", routing.read.execute(status -> routing.node()));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    @DisplayName("계정을 지정한 연결은 primary에서 가져온다")
+    void test5() throws SQLException {
+        // given
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                h2("primary"), List.of(h2("replica")), STICKINESS, RETRY_AFTER, now::get);
+        now.addAndGet(STICKINESS.toMillis() + 1);
+
+        // expected
+        try (Connection connection = routing.getConnection("sa", "")) {
+            assertEquals("primary", new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("select name from node", String.class));
+        }
+    }
+
+    private Routing routing(DataSource primary, List<DataSource> replicas) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replicas, STICKINESS, RETRY_AFTER, now::get));
+        return new Routing(dataSource);
+    }
+
+    // 서로 다른 H2 인메모리 DB에 자기 이름을 넣어두고, 어느 DB에서 읽었는지 확인한다.
+    private DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(20))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+
+    private static class Routing {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate write;
+        private final TransactionTemplate read;
+
+        Routing(DataSource dataSource) {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.write = new TransactionTemplate(transactionManager);
+            this.read = new TransactionTemplate(transactionManager);
+            this.read.setReadOnly(true);
+        }
+
+        String node() {
+            return jdbcTemplate.queryForObject("select name from node", String.class);
+        }
+    }
+}
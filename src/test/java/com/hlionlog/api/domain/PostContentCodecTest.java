@@ -0,0 +1,52 @@
+package com.hlionlog.api.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostContentCodecTest {
+
+    @Test
+    @DisplayName("긴 본문은 압축하고 원문 그대로 읽는다")
+    void test1() {
+        // given
+        String content = "반복되는 글 본문입니다. ".repeat(200);
+
+        // when
+        byte[] compressed = PostContentCodec.compress(content);
+
+        // then
+        assertNotNull(compressed);
+        assertTrue(compressed.length < content.getBytes(UTF_8).length / 4);
+        assertEquals(content, PostContentCodec.decompress(compressed));
+    }
+
+    @Test
+    @DisplayName("짧거나 압축해도 줄지 않는 본문은 압축하지 않는다")
+    void test2() {
+        assertNull(PostContentCodec.compress("짧은 글"));
+        assertNull(PostContentCodec.compress(null));
+    }
+
+    @Test
+    @DisplayName("압축하면 본문을 compressed_content로 옮기고 원문으로 읽는다 (제어문자로 시작하는 본문도 구분된다)")
+    void test3() {
+        // given
+        String content = "\u0001로 시작하는 긴 본문입니다. ".repeat(100);
+        PostBody postBody = new PostBody(content);
+
+        // when
+        postBody.compress();
+
+        // then
+        assertNotNull(postBody.getCompressedContent());
+        assertEquals(content, postBody.getContent());
+
+        postBody.edit("짧은 글");
+        postBody.compress();
+        assertNull(postBody.getCompressedContent());
+        assertEquals("짧은 글", postBody.getContent());
+    }
+}
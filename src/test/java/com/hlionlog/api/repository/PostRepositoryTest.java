@@ -0,0 +1,126 @@
+package com.hlionlog.api.repository;
+
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.request.PostSearch;
+import com.hlionlog.api.request.PostSort;
+import com.hlionlog.api.response.PostSummaryResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 목록 필터마다 repository가 실제로 만든 SQL을 H2 EXPLAIN으로 확인해서, 테이블 전체를 읽지 않고 인덱스를 타는지 검사한다.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hlionlog.api.repository.LastSqlInspector")
+class PostRepositoryTest {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        postRepository.deleteAll();
+        postRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> Post.builder()
+                        .title("title " + i)
+                        .content("content " + i)
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("제목 앞부분 필터는 title 인덱스를 사용한다")
+    void test1() {
+        // when
+        List<PostSummaryResponse> posts = postRepository.getSummaries(PostSearch.builder()
+                .titlePrefix("title 1")
+                .sort(PostSort.TITLE)
+                .build());
+
+        // then
+        assertEquals(10, posts.size());
+        assertEquals("title 1", posts.get(0).getTitle());
+        assertUsesIndex("idx_post_title", "title 1", "title 1" + Character.MAX_VALUE, 10);
+    }
+
+    @Test
+    @DisplayName("작성일 범위 필터는 created_at 인덱스를 사용한다")
+    void test2() {
+        // given
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+        LocalDateTime to = LocalDateTime.now().plusDays(1);
+
+        // when
+        List<PostSummaryResponse> posts = postRepository.getSummaries(PostSearch.builder()
+                .createdFrom(from)
+                .createdTo(to)
+                .build());
+
+        // then
+        assertEquals(10, posts.size());
+        assertUsesIndex("idx_post_created_at", from, to, 10);
+    }
+
+    @Test
+    @DisplayName("수정일 범위 필터는 modified_at 인덱스를 사용한다")
+    void test3() {
+        // given
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+
+        // when
+        List<PostSummaryResponse> posts = postRepository.getSummaries(PostSearch.builder()
+                .modifiedFrom(from)
+                .sort(PostSort.MODIFIED)
+                .build());
+
+        // then
+        assertEquals(10, posts.size());
+        assertUsesIndex("idx_post_modified_at", from, 10);
+    }
+
+    @Test
+    @DisplayName("범위에 맞는 글이 없으면 빈 목록")
+    void test4() {
+        // when
+        List<PostSummaryResponse> posts = postRepository.getSummaries(PostSearch.builder()
+                .createdTo(LocalDateTime.now().minusDays(1))
+                .build());
+
+        // then
+        assertTrue(posts.isEmpty());
+    }
+
+    @Test
+    @DisplayName("압축 설정이 꺼져 있으면 본문은 예전처럼 content(CLOB) 컬럼에 저장한다")
+    void test5() {
+        // expected
+        assertEquals("CHARACTER LARGE OBJECT", jdbcTemplate.queryForObject(
+                "select data_type from information_schema.columns where table_name = 'POST_BODY' and column_name = 'CONTENT'",
+                String.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from post_body where content is null or compressed_content is not null", Integer.class));
+    }
+
+    // 마지막으로 실행된 SQL을 같은 파라미터로 EXPLAIN 한다.
+    private void assertUsesIndex(String index, Object... parameters) {
+        String sql = LastSqlInspector.lastSql();
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+
+        assertTrue(plan.toLowerCase().contains(index), () -> index + " 인덱스를 사용하지 않습니다.\n" + plan);
+        assertFalse(plan.contains("tableScan"), () -> "테이블 전체를 읽습니다.\n" + plan);
+    }
+}
@@ -1,22 +1,43 @@
 package com.hlionlog.api.service;
 
+import com.hlionlog.api.cache.LocalCache;
+import com.hlionlog.api.cache.PostListCache;
 import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.domain.QPost;
+import com.hlionlog.api.exception.PostModified;
 import com.hlionlog.api.exception.PostNotFound;
 import com.hlionlog.api.repository.PostRepository;
 import com.hlionlog.api.request.PostCreate;
 import com.hlionlog.api.request.PostEdit;
 import com.hlionlog.api.request.PostSearch;
 import com.hlionlog.api.response.PostResponse;
+import com.hlionlog.api.response.PostSummaryResponse;
+import com.hlionlog.api.search.PostSearchIndex;
+import com.hlionlog.api.search.SearchResult;
+import com.hlionlog.api.sql.QueryCount;
+import com.hlionlog.api.sql.QueryCounting;
+import com.hlionlog.api.view.PostViewCounter;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -28,9 +49,35 @@ class PostServiceTest {
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private LocalCache<Long, PostResponse> postCache;
+
+    @Autowired
+    private PostListCache postListCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private PostSearchIndexer postSearchIndexer;
+
+    @Autowired
+    private PostViewCounter postViewCounter;
+
+    @Autowired
+    private PostImportService postImportService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @BeforeEach
     void clear() {
         postRepository.deleteAll();
+        postCache.invalidateAll();
+        postListCache.invalidateAll();
     }
 
     @Test
@@ -47,9 +94,13 @@ class PostServiceTest {
 
         // then
         assertEquals(1L, postRepository.count());
-        List<Post> all = postRepository.findAll();
-        assertEquals(postCreate.getTitle(), all.get(0).getTitle());
-        assertEquals(postCreate.getContent(), all.get(0).getContent());
+        // 본문은 지연 로딩이므로 트랜잭션 안에서 읽는다.
+        transactionTemplate.executeWithoutResult(status -> {
+            Post post = postRepository.findAll().get(0);
+            assertEquals(postCreate.getTitle(), post.getTitle());
+            assertEquals(postCreate.getContent(), post.getContent());
+            assertEquals(postCreate.getContent(), post.getExcerpt());
+        });
     }
 
     @Test
@@ -72,6 +123,70 @@ class PostServiceTest {
         assertEquals("content", response.getContent());
     }
 
+    @Test
+    @DisplayName("글 엔티티를 읽어도 본문은 읽지 않고, 단건 조회는 본문까지 쿼리 한 번으로 읽는다")
+    void test2_1() {
+        // given
+        Post requestPost = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(requestPost);
+
+        // when
+        Post found = postRepository.findById(requestPost.getId()).orElseThrow();
+        QueryCount count = QueryCounting.measure(() -> postService.get(requestPost.getId()));
+
+        // then
+        assertFalse(entityManagerFactory.getPersistenceUnitUtil().isLoaded(found, "body"));
+        assertEquals(1L, count.getStatements());
+    }
+
+    @Test
+    @DisplayName("같은 글을 다시 조회하면 캐시에서 응답한다")
+    void test3() {
+        // given
+        Post requestPost = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(requestPost);
+        long hits = postCache.stats().hitCount();
+
+        // when
+        postService.get(requestPost.getId());
+        PostResponse response = postService.get(requestPost.getId());
+
+        // then
+        assertEquals("title", response.getTitle());
+        assertEquals(hits + 1, postCache.stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("글 수정 후 조회하면 수정된 글을 응답한다")
+    void test4() {
+        // given
+        Post requestPost = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(requestPost);
+        postService.get(requestPost.getId());
+
+        PostEdit postEdit = PostEdit.builder()
+                .title("edited")
+                .content("edited content")
+                .build();
+
+        // when
+        postService.edit(requestPost.getId(), postEdit);
+        PostResponse response = postService.get(requestPost.getId());
+
+        // then
+        assertEquals("edited", response.getTitle());
+        assertEquals("edited content", response.getContent());
+    }
+
     @Test
     @DisplayName("글 1페이지 조회")
     void test5() {
@@ -91,13 +206,91 @@ class PostServiceTest {
         // sql -> select, limit, offset
 
         // when
-        List<PostResponse> posts = postService.getList(postSearch);
+        List<PostSummaryResponse> posts = postService.getList(postSearch);
 
         // then
         assertEquals(10L, posts.size());
         assertEquals("title 19", posts.get(0).getTitle());
     }
 
+    @Test
+    @DisplayName("글 1페이지 조회는 쿼리 한 번으로 끝난다")
+    void test5_3() {
+        // given
+        postRepository.saveAll(IntStream.range(0, 20)
+                .mapToObj(i -> Post.builder()
+                        .title("title " + i)
+                        .content("content " + i)
+                        .build())
+                .collect(Collectors.toList()));
+
+        PostSearch postSearch = PostSearch.builder()
+                .page(1)
+                .build();
+
+        // when
+        QueryCount count = QueryCounting.measure(() -> postService.getList(postSearch));
+
+        // then
+        assertEquals(1L, count.getStatements());
+        assertEquals(10L, count.getRows());
+    }
+
+    @Test
+    @DisplayName("글 작성 후 1페이지를 다시 조회하면 새 글이 보인다")
+    void test5_2() {
+        // given
+        postService.write(PostCreate.builder()
+                .title("first")
+                .content("content")
+                .build());
+        PostSearch postSearch = PostSearch.builder()
+                .page(1)
+                .build();
+        postService.getList(postSearch);
+
+        // when
+        postService.write(PostCreate.builder()
+                .title("second")
+                .content("content")
+                .build());
+        List<PostSummaryResponse> posts = postService.getList(postSearch);
+
+        // then
+        assertEquals(2, posts.size());
+        assertEquals("second", posts.get(0).getTitle());
+    }
+
+    @Test
+    @DisplayName("cursor 기준으로 다음 페이지 조회")
+    void test5_1() {
+        // given
+        List<Post> requestPosts = IntStream.range(0, 20)
+                        .mapToObj(i -> Post.builder()
+                                    .title("title " + i)
+                                    .content("content " + i)
+                                    .build()
+                        ).collect(Collectors.toList());
+        postRepository.saveAll(requestPosts);
+
+        List<PostSummaryResponse> firstPage = postService.getList(PostSearch.builder()
+                .size(10)
+                .build());
+
+        PostSearch postSearch = PostSearch.builder()
+                .size(10)
+                .cursor(firstPage.get(firstPage.size() - 1).getId())
+                .build();
+
+        // when
+        List<PostSummaryResponse> posts = postService.getList(postSearch);
+
+        // then
+        assertEquals(10L, posts.size());
+        assertEquals("title 9", posts.get(0).getTitle());
+        assertEquals("title 0", posts.get(9).getTitle());
+    }
+
     @Test
     @DisplayName("글 제목 수정")
     void test6() {
@@ -118,7 +311,7 @@ class PostServiceTest {
         postService.edit(post.getId(), postEdit);
 
         // then
-        Post changedPost = postRepository.findById(post.getId())
+        Post changedPost = postRepository.findWithBodyById(post.getId())
                 .orElseThrow(() -> new RuntimeException("글이 존재하지 않습니다. id=" + post.getId()));
         assertEquals("edited title", changedPost.getTitle());
         assertEquals("content", changedPost.getContent());
@@ -144,12 +337,38 @@ class PostServiceTest {
         postService.edit(post.getId(), postEdit);
 
         // then
-        Post changedPost = postRepository.findById(post.getId())
+        Post changedPost = postRepository.findWithBodyById(post.getId())
                 .orElseThrow(() -> new RuntimeException("글이 존재하지 않습니다. id=" + post.getId()));
         assertEquals("title", changedPost.getTitle());
         assertEquals("edited content", changedPost.getContent());
     }
 
+    @Test
+    @DisplayName("글 내용 수정시 excerpt도 함께 갱신된다")
+    void test7_1() {
+        // given
+        Post post = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+
+        postRepository.save(post);
+
+        String longContent = "a".repeat(Post.EXCERPT_LENGTH) + "b".repeat(50);
+        PostEdit postEdit = PostEdit.builder()
+                .title("title")
+                .content(longContent)
+                .build();
+
+        // when
+        postService.edit(post.getId(), postEdit);
+
+        // then
+        Post changedPost = postRepository.findById(post.getId())
+                .orElseThrow(() -> new RuntimeException("글이 존재하지 않습니다. id=" + post.getId()));
+        assertEquals("a".repeat(Post.EXCERPT_LENGTH), changedPost.getExcerpt());
+    }
+
     @Test
     @DisplayName("글 삭제")
     void test8() {
@@ -168,6 +387,234 @@ class PostServiceTest {
         assertEquals(0, postRepository.count());
     }
 
+    @Test
+    @DisplayName("글 삭제는 쿼리 두 번 이하로 끝난다")
+    void test8_4() {
+        // given
+        Post post = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+
+        postRepository.save(post);
+
+        // when
+        QueryCount count = QueryCounting.measure(() -> postService.delete(post.getId()));
+
+        // then
+        assertTrue(count.getStatements() <= 2, "statements=" + count.getStatements());
+        assertEquals(0, postRepository.count());
+    }
+
+    @Test
+    @DisplayName("글 여러 개를 id로 한 번에 삭제")
+    void test8_1() {
+        // given
+        List<Post> posts = IntStream.range(0, 5)
+                .mapToObj(i -> Post.builder()
+                        .title("title " + i)
+                        .content("content " + i)
+                        .build()
+                ).collect(Collectors.toList());
+        postRepository.saveAll(posts);
+
+        // when
+        long deleted = postService.deleteAll(List.of(posts.get(0).getId(), posts.get(1).getId(), -1L));
+
+        // then
+        assertEquals(2L, deleted);
+        assertEquals(3L, postRepository.count());
+    }
+
+    @Test
+    @DisplayName("조건에 맞는 글을 한 번에 삭제")
+    void test8_2() {
+        // given
+        postRepository.saveAll(List.of(
+                Post.builder().title("[temp] title").content("content").build(),
+                Post.builder().title("[temp] title 2").content("content").build(),
+                Post.builder().title("title").content("content").build()
+        ));
+
+        // when
+        long deleted = postService.deleteAll(QPost.post.title.startsWith("[temp]"));
+
+        // then
+        assertEquals(2L, deleted);
+        assertEquals(1L, postRepository.count());
+    }
+
+    @Test
+    @DisplayName("존재하지 않는 글 수정시 PostNotFound")
+    void test8_3() {
+        // given
+        PostEdit postEdit = PostEdit.builder()
+                .title("title")
+                .content("content")
+                .build();
+
+        // expected
+        assertThrows(PostNotFound.class, () -> postService.edit(1L, postEdit));
+    }
+
+    @Test
+    @DisplayName("버전을 지정해서 수정하면 그 버전일 때만 수정되고, 다르면 PostModified")
+    void test8_5() {
+        // given
+        Post post = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(post);
+
+        PostEdit first = PostEdit.builder()
+                .title("first")
+                .content("content")
+                .build();
+        PostEdit second = PostEdit.builder()
+                .title("second")
+                .content("content")
+                .build();
+
+        // when
+        postService.edit(post.getId(), first, 0L);
+
+        // then
+        assertThrows(PostModified.class, () -> postService.edit(post.getId(), second, 0L));
+        assertThrows(PostNotFound.class, () -> postService.edit(post.getId() + 1, second, 0L));
+
+        Post changedPost = postRepository.findById(post.getId()).orElseThrow();
+        assertEquals("first", changedPost.getTitle());
+        assertEquals(1L, changedPost.getVersion());
+    }
+
+    @Test
+    @DisplayName("검색 색인을 글 테이블에서 다시 만들 수 있다")
+    void test8_6() {
+        // given
+        postSearchIndex.clear();
+        postRepository.saveAll(IntStream.range(0, 30)
+                .mapToObj(i -> Post.builder()
+                        .title("title " + i)
+                        .content(i % 3 == 0 ? "hibernate content" : "content")
+                        .build())
+                .collect(Collectors.toList()));
+
+        // when
+        long indexed = postSearchIndexer.rebuild();
+        SearchResult result = postSearchIndex.search("Hibernate", 0, 5);
+
+        // then
+        assertEquals(30L, indexed);
+        assertEquals(30, postSearchIndex.size());
+        assertEquals(10L, result.getTotal());
+        assertEquals(5, result.getIds().size());
+    }
+
+    @Test
+    @DisplayName("조회수는 메모리에 모았다가 한 번에 반영하고, 반영 전에도 응답에 포함된다")
+    void test8_7() {
+        // given
+        Post post = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(post);
+        postService.get(post.getId());
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            postViewCounter.increment(post.getId());
+        }
+
+        // then
+        assertEquals(3L, postService.get(post.getId()).getViews());
+
+        postViewCounter.flush();
+        assertEquals(3L, postRepository.findById(post.getId()).orElseThrow().getViews());
+        assertEquals(3L, postService.get(post.getId()).getViews());
+    }
+
+    @Test
+    @DisplayName("조회수를 반영해도 글 캐시를 비우지 않고, 캐시된 글도 반영된 조회수로 응답한다")
+    void test8_7_1() {
+        // given
+        Post post = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(post);
+        postViewCounter.increment(post.getId());
+        postViewCounter.flush();
+        postService.get(post.getId());
+        long generation = postCache.generation();
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            postViewCounter.increment(post.getId());
+        }
+        postViewCounter.flush();
+
+        // then
+        assertNotNull(postCache.getIfPresent(post.getId()));
+        assertEquals(generation, postCache.generation());
+        assertEquals(4L, postRepository.findById(post.getId()).orElseThrow().getViews());
+        assertEquals(4L, postService.get(post.getId()).getViews());
+        assertEquals(4L, postService.getVersion(post.getId()).getViews());
+        assertEquals(4L, postService.getAll(List.of(post.getId())).getPosts().get(0).getViews());
+    }
+
+    @Test
+    @DisplayName("같은 글을 동시에 조회해도 조회수가 빠지지 않는다")
+    void test8_8() throws Exception {
+        // given
+        Post post = Post.builder()
+                .title("title")
+                .content("content")
+                .build();
+        postRepository.save(post);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    postViewCounter.increment(post.getId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        postViewCounter.flush();
+
+        // then
+        assertEquals(8000L, postRepository.findById(post.getId()).orElseThrow().getViews());
+    }
+
+    @Test
+    @DisplayName("요청 동안 EntityManager가 유지되어도(open-in-view) 가져오기는 chunk 마다 영속성 컨텍스트를 비운다")
+    void test8_9() throws Exception {
+        // given
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            body.append("{\"title\":\"title ").append(i).append("\",\"content\":\"content\"}\n");
+        }
+        EntityManager em = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(em));
+
+        // when
+        try {
+            postImportService.importPosts(null, 0, new ByteArrayInputStream(body.toString().getBytes(UTF_8)));
+
+            // then
+            assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            em.close();
+        }
+        assertEquals(1200L, postRepository.count());
+    }
+
     @Test
     @DisplayName("글 한 개 조회 실패")
     void test9() {
@@ -0,0 +1,16 @@
+package com.hlionlog.api.sql;
+
+public final class QueryCounting {
+
+    private QueryCounting() {
+    }
+
+    /**
+     * action 실행 중에 이 스레드에서 실행된 SQL 문 수 / row 수
+     */
+    public static QueryCount measure(Runnable action) {
+        QueryCount before = QueryCounter.snapshot();
+        action.run();
+        return QueryCounter.snapshot().minus(before);
+    }
+}
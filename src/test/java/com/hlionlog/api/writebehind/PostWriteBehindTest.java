@@ -0,0 +1,236 @@
+package com.hlionlog.api.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hlionlog.api.domain.Post;
+import com.hlionlog.api.domain.PostJournalCheckpoint;
+import com.hlionlog.api.exception.PostQueueFull;
+import com.hlionlog.api.repository.PostJournalCheckpointRepository;
+import com.hlionlog.api.repository.PostRepository;
+import com.hlionlog.api.request.PostCreate;
+import com.hlionlog.api.service.PostBatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PostWriteBehindTest {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostJournalCheckpointRepository postJournalCheckpointRepository;
+
+    @Autowired
+    private PostBatchWriter postBatchWriter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void clear() {
+        postRepository.deleteAll();
+        postJournalCheckpointRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("journal에 남긴 글은 모아서 저장하고, 다 저장하면 journal을 비운다")
+    void test1() throws Exception {
+        // given
+        Path journal = dir.resolve("journal.ndjson");
+        PostWriteBehind writeBehind = writeBehind(journal);
+        writeBehind.start();
+
+        // when
+        for (int i = 1; i <= 30; i++) {
+            writeBehind.submit(PostCreate.builder()
+                    .title("제목 " + i)
+                    .content("내용 " + i)
+                    .build());
+        }
+        writeBehind.close();
+
+        // then
+        assertEquals(30L, postRepository.count());
+        assertEquals(30L, postJournalCheckpointRepository.findById("post").orElseThrow().getCommittedSeq());
+        assertEquals(0L, Files.size(journal));
+    }
+
+    @Test
+    @DisplayName("시작할 때 journal에서 저장되지 않은 글만 다시 저장하고, 쓰다 만 줄은 버린다")
+    void test2() throws Exception {
+        // given
+        Path journal = dir.resolve("journal.ndjson");
+        Files.write(journal, List.of(
+                "{\"seq\":1,\"title\":\"제목 1\",\"content\":\"내용 1\"}",
+                "{\"seq\":2,\"title\":\"제목 2\",\"content\":\"내용 2\"}",
+                "{\"seq\":3,\"title\":\"제목 3\",\"content\":\"내용 3\"}",
+                "{\"seq\":4,\"title\":\"제목"), UTF_8);
+        PostJournalCheckpoint checkpoint = new PostJournalCheckpoint("post");
+        checkpoint.commit(1, 1, 0);
+        postJournalCheckpointRepository.save(checkpoint);
+
+        // when
+        PostWriteBehind writeBehind = writeBehind(journal);
+        writeBehind.start();
+        writeBehind.close();
+
+        // then
+        List<String> titles = postRepository.findAll().stream()
+                .map(Post::getTitle)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of("제목 2", "제목 3"), titles);
+        assertEquals(3L, postJournalCheckpointRepository.findById("post").orElseThrow().getCommittedSeq());
+        assertEquals(0L, Files.size(journal));
+    }
+
+    @Test
+    @DisplayName("저장할 수 없는 글은 .failed 파일로 옮기고, 나머지 글은 계속 저장한다")
+    void test2_1() throws Exception {
+        // given
+        Path journal = dir.resolve("journal.ndjson");
+        PostWriteBehind writeBehind = writeBehind(journal);
+        writeBehind.start();
+
+        // when -> 제목 컬럼(255자)보다 긴 제목은 검증은 통과하지만 DB에서 실패한다.
+        writeBehind.submit(PostCreate.builder().title("제목 1").content("내용").build());
+        writeBehind.submit(PostCreate.builder().title("a".repeat(300)).content("내용").build());
+        writeBehind.submit(PostCreate.builder().title("제목 3").content("내용").build());
+        writeBehind.close();
+
+        // then
+        List<String> titles = postRepository.findAll().stream()
+                .map(Post::getTitle)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of("제목 1", "제목 3"), titles);
+
+        PostJournalCheckpoint checkpoint = postJournalCheckpointRepository.findById("post").orElseThrow();
+        assertEquals(3L, checkpoint.getCommittedSeq());
+        assertEquals(2L, checkpoint.getSaved());
+        assertEquals(1L, checkpoint.getFailed());
+
+        List<String> failed = Files.readAllLines(dir.resolve("journal.ndjson.failed"), UTF_8);
+        assertEquals(1, failed.size());
+        assertTrue(failed.get(0).startsWith("{\"seq\":2,"));
+        assertEquals(0L, Files.size(journal));
+    }
+
+    @Test
+    @DisplayName("시작할 때 다시 저장하는 글 중 저장할 수 없는 글이 있어도 시작한다")
+    void test2_2() throws Exception {
+        // given
+        Path journal = dir.resolve("journal.ndjson");
+        Files.write(journal, List.of(
+                "{\"seq\":1,\"title\":\"" + "a".repeat(300) + "\",\"content\":\"내용 1\"}",
+                "{\"seq\":2,\"title\":\"제목 2\",\"content\":\"내용 2\"}"), UTF_8);
+
+        // when
+        PostWriteBehind writeBehind = writeBehind(journal);
+        writeBehind.start();
+        writeBehind.close();
+
+        // then
+        assertEquals(1L, postRepository.count());
+        assertEquals(2L, postJournalCheckpointRepository.findById("post").orElseThrow().getCommittedSeq());
+        assertEquals(1, Files.readAllLines(dir.resolve("journal.ndjson.failed"), UTF_8).size());
+    }
+
+    @Test
+    @DisplayName("연결 실패 같은 일시적인 실패는 .failed로 옮기지 않고 같은 글을 다시 저장한다")
+    void test2_3() throws Exception {
+        // given
+        AtomicInteger failures = new AtomicInteger(2);
+        PostBatchWriter flaky = new PostBatchWriter(null, null) {
+            @Override
+            public void saveAll(List<Post> posts) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new CannotCreateTransactionException("연결 실패");
+                }
+                postBatchWriter.saveAll(posts);
+            }
+        };
+        Path journal = dir.resolve("journal.ndjson");
+        PostWriteBehind writeBehind = writeBehind(flaky, journal);
+        writeBehind.start();
+
+        // when
+        writeBehind.submit(PostCreate.builder().title("제목").content("내용").build());
+        writeBehind.close();
+
+        // then
+        assertEquals(1L, postRepository.count());
+        PostJournalCheckpoint checkpoint = postJournalCheckpointRepository.findById("post").orElseThrow();
+        assertEquals(1L, checkpoint.getCommittedSeq());
+        assertEquals(0L, checkpoint.getFailed());
+        assertFalse(Files.exists(dir.resolve("journal.ndjson.failed")));
+    }
+
+    @Test
+    @DisplayName("종료 중에는 새 글을 받지 않는다 (503)")
+    void test3() throws Exception {
+        // given
+        PostWriteBehind writeBehind = writeBehind(dir.resolve("journal.ndjson"));
+        writeBehind.start();
+        writeBehind.close();
+
+        // expected
+        PostQueueFull e = assertThrows(PostQueueFull.class, () -> writeBehind.submit(PostCreate.builder()
+                .title("제목")
+                .content("내용")
+                .build()));
+        assertEquals(503, e.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("journal 순번은 저장된 순번 다음부터 이어진다")
+    void test4() throws Exception {
+        // given
+        Path path = dir.resolve("journal.ndjson");
+        PostJournal journal = new PostJournal(path, objectMapper);
+        journal.readAfter(7);
+
+        // when
+        long seq = journal.append(PostCreate.builder()
+                .title("제목")
+                .content("내용")
+                .build());
+        journal.sync(seq);
+        journal.close();
+
+        // then
+        assertEquals(8L, seq);
+        assertEquals(List.of("{\"seq\":8,\"title\":\"제목\",\"content\":\"내용\"}"), Files.readAllLines(path, UTF_8));
+    }
+
+    private PostWriteBehind writeBehind(Path journal) {
+        return writeBehind(postBatchWriter, journal);
+    }
+
+    private PostWriteBehind writeBehind(PostBatchWriter postBatchWriter, Path journal) {
+        return new PostWriteBehind(postBatchWriter, postJournalCheckpointRepository, transactionTemplate, objectMapper,
+                true, 100, 8, journal, Duration.ofSeconds(10));
+    }
+}